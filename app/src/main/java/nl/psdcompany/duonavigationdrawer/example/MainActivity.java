@@ -40,7 +40,7 @@ public class MainActivity extends AppCompatActivity implements DuoMenuView.OnMen
 
         // Show main fragment in container
         goToFragment(new MainFragment(), false);
-        mMenuAdapter.setViewSelected(0, true);
+        mViewHolder.mDuoMenuView.setSelectedPosition(0);
         setTitle(mTitles.get(0));
     }
 
@@ -55,7 +55,7 @@ public class MainActivity extends AppCompatActivity implements DuoMenuView.OnMen
                 R.string.navigation_drawer_open,
                 R.string.navigation_drawer_close);
 
-        mViewHolder.mDuoDrawerLayout.setDrawerListener(duoDrawerToggle);
+        mViewHolder.mDuoDrawerLayout.addDrawerListener(duoDrawerToggle);
         duoDrawerToggle.syncState();
 
     }
@@ -93,7 +93,7 @@ public class MainActivity extends AppCompatActivity implements DuoMenuView.OnMen
         setTitle(mTitles.get(position));
 
         // Set the right options selected
-        mMenuAdapter.setViewSelected(position, true);
+        mViewHolder.mDuoMenuView.setSelectedPosition(position);
 
         // Navigate to the right fragment
         switch (position) {
@@ -14,7 +14,6 @@ import nl.psdcompany.duonavigationdrawer.views.DuoOptionView;
 
 class MenuAdapter extends BaseAdapter {
     private ArrayList<String> mOptions = new ArrayList<>();
-    private ArrayList<DuoOptionView> mOptionViews = new ArrayList<>();
 
     MenuAdapter(ArrayList<String> options) {
         mOptions = options;
@@ -30,19 +29,6 @@ class MenuAdapter extends BaseAdapter {
         return mOptions.get(position);
     }
 
-    void setViewSelected(int position, boolean selected) {
-
-        // Looping through the options in the menu
-        // Selecting the chosen option
-        for (int i = 0; i < mOptionViews.size(); i++) {
-            if (i == position) {
-                mOptionViews.get(i).setSelected(selected);
-            } else {
-                mOptionViews.get(i).setSelected(!selected);
-            }
-        }
-    }
-
     @Override
     public long getItemId(int position) {
         return position;
@@ -63,9 +49,6 @@ class MenuAdapter extends BaseAdapter {
         // Using the DuoOptionView's default selectors
         optionView.bind(option, null, null);
 
-        // Adding the views to an array list to handle view selection
-        mOptionViews.add(optionView);
-
         return optionView;
     }
 }
@@ -0,0 +1,119 @@
+package nl.psdcompany.duonavigationdrawer.views;
+
+import android.content.Context;
+import android.os.SystemClock;
+import android.view.ContextThemeWrapper;
+import android.view.MotionEvent;
+import android.view.View;
+import android.view.ViewConfiguration;
+
+import androidx.test.InstrumentationRegistry;
+
+/**
+ * Builds the views the drawer tests run against. The views are never attached to a window,
+ * so the tests measure and lay them out themselves at the size of a phone screen.
+ */
+final class DrawerTestViews {
+    static final int WIDTH = 1080;
+    static final int HEIGHT = 1920;
+
+    private DrawerTestViews() {
+    }
+
+    /**
+     * Returns a context with the AppCompat theme the drawer and menu views expect.
+     */
+    static Context createContext() {
+        return new ContextThemeWrapper(InstrumentationRegistry.getTargetContext(),
+                androidx.appcompat.R.style.Theme_AppCompat);
+    }
+
+    /**
+     * Creates a drawer with the given menu and content, measured and laid out at {@link #WIDTH}
+     * by {@link #HEIGHT}. Has to be called on the main thread.
+     */
+    static DuoDrawerLayout createDrawer(Context context, View menuView, View contentView) {
+        DuoDrawerLayout drawerLayout = new DuoDrawerLayout(context);
+        drawerLayout.setMenuView(menuView);
+        drawerLayout.setContentView(contentView);
+        measureAndLayout(drawerLayout, WIDTH, HEIGHT);
+        return drawerLayout;
+    }
+
+    /**
+     * Measures a view at exactly the given size and lays it out at the top left.
+     */
+    static void measureAndLayout(View view, int width, int height) {
+        view.measure(View.MeasureSpec.makeMeasureSpec(width, View.MeasureSpec.EXACTLY),
+                View.MeasureSpec.makeMeasureSpec(height, View.MeasureSpec.EXACTLY));
+        view.layout(0, 0, width, height);
+    }
+
+    /**
+     * Drags the content of a drawer from its left edge with touch events that are dispatched
+     * to the drawer a frame apart. Touch resampling is turned off, so every move reaches the
+     * drag helper right away. Has to be used on the main thread.
+     */
+    static final class EdgeDrag {
+        private static final long FRAME_MILLIS = 16;
+
+        private final DuoDrawerLayout mDrawerLayout;
+        private final int mTouchSlop;
+        private long mDownTime;
+        private long mEventTime;
+        private float mTouchX;
+
+        EdgeDrag(DuoDrawerLayout drawerLayout) {
+            mDrawerLayout = drawerLayout;
+            mTouchSlop = ViewConfiguration.get(drawerLayout.getContext()).getScaledTouchSlop();
+            drawerLayout.setTouchResamplingEnabled(false);
+        }
+
+        /**
+         * Touches down at the left edge and moves past the touch slop,
+         * so the content is captured and the next move drags it.
+         */
+        void start() {
+            mDownTime = SystemClock.uptimeMillis();
+            mEventTime = mDownTime;
+            mTouchX = 1;
+            dispatch(obtainEvent(MotionEvent.ACTION_DOWN, 0));
+            dispatch(obtainEvent(MotionEvent.ACTION_MOVE, mTouchSlop + 1));
+        }
+
+        /**
+         * Moves the touch, and with it the content, a frame later.
+         */
+        void moveBy(float dx) {
+            dispatch(obtainMove(dx));
+        }
+
+        /**
+         * Lifts the touch a frame later.
+         */
+        void release() {
+            dispatch(obtainEvent(MotionEvent.ACTION_UP, 0));
+        }
+
+        /**
+         * Obtains the next move of the drag without dispatching it.
+         * The caller dispatches and recycles it.
+         */
+        MotionEvent obtainMove(float dx) {
+            return obtainEvent(MotionEvent.ACTION_MOVE, dx);
+        }
+
+        private MotionEvent obtainEvent(int action, float dx) {
+            if (action != MotionEvent.ACTION_DOWN) {
+                mEventTime += FRAME_MILLIS;
+            }
+            mTouchX += dx;
+            return MotionEvent.obtain(mDownTime, mEventTime, action, mTouchX, HEIGHT / 2f, 0);
+        }
+
+        private void dispatch(MotionEvent event) {
+            mDrawerLayout.dispatchTouchEvent(event);
+            event.recycle();
+        }
+    }
+}
@@ -0,0 +1,102 @@
+package nl.psdcompany.duonavigationdrawer.views;
+
+import android.content.Context;
+import android.view.View;
+import android.widget.FrameLayout;
+
+import androidx.test.annotation.UiThreadTest;
+import androidx.test.runner.AndroidJUnit4;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * Checks which layer type the content and menu get from the {@link DuoDrawerLayout.LayerPolicy}
+ * while the drawer is idle and while it settles.
+ */
+@RunWith(AndroidJUnit4.class)
+public class DuoDrawerLayoutLayerPolicyTest {
+    private DuoDrawerLayout mDrawerLayout;
+    private View mContentView;
+    private View mMenuView;
+
+    @Before
+    public void setUp() throws Exception {
+        Context context = DrawerTestViews.createContext();
+        mMenuView = new FrameLayout(context);
+        mContentView = new FrameLayout(context);
+        mDrawerLayout = DrawerTestViews.createDrawer(context, mMenuView, mContentView);
+    }
+
+    @Test
+    @UiThreadTest
+    public void animationOnlyPolicyPromotesWhileSettling() throws Exception {
+        assertSame(DuoDrawerLayout.LAYER_POLICY_ANIMATION_ONLY, mDrawerLayout.getLayerPolicy());
+        assertEquals(View.LAYER_TYPE_NONE, mContentView.getLayerType());
+        assertEquals(View.LAYER_TYPE_NONE, mMenuView.getLayerType());
+
+        mDrawerLayout.openDrawer();
+        assertEquals(View.LAYER_TYPE_HARDWARE, mContentView.getLayerType());
+        assertEquals(View.LAYER_TYPE_HARDWARE, mMenuView.getLayerType());
+
+        mDrawerLayout.setDrawerOpen(true, false);
+        assertEquals(View.LAYER_TYPE_NONE, mContentView.getLayerType());
+        assertEquals(View.LAYER_TYPE_NONE, mMenuView.getLayerType());
+    }
+
+    @Test
+    @UiThreadTest
+    public void alwaysPolicyKeepsLayersWhileIdle() throws Exception {
+        mDrawerLayout.setLayerPolicy(DuoDrawerLayout.LAYER_POLICY_ALWAYS);
+        assertEquals(View.LAYER_TYPE_HARDWARE, mContentView.getLayerType());
+        assertEquals(View.LAYER_TYPE_HARDWARE, mMenuView.getLayerType());
+
+        mDrawerLayout.setDrawerOpen(true, false);
+        assertEquals(View.LAYER_TYPE_HARDWARE, mContentView.getLayerType());
+        assertEquals(View.LAYER_TYPE_HARDWARE, mMenuView.getLayerType());
+    }
+
+    @Test
+    @UiThreadTest
+    public void nonePolicyNeverPromotes() throws Exception {
+        mDrawerLayout.setLayerPolicy(DuoDrawerLayout.LAYER_POLICY_NONE);
+
+        mDrawerLayout.openDrawer();
+        assertEquals(View.LAYER_TYPE_NONE, mContentView.getLayerType());
+        assertEquals(View.LAYER_TYPE_NONE, mMenuView.getLayerType());
+    }
+
+    @Test
+    @UiThreadTest
+    public void customPolicyIsAskedOnEveryStateChange() throws Exception {
+        final List<Integer> states = new ArrayList<>();
+        mDrawerLayout.setLayerPolicy(new DuoDrawerLayout.LayerPolicy() {
+            @Override
+            public int getLayerType(View view, int state, float dragOffset) {
+                if (view == mContentView) {
+                    states.add(state);
+                }
+                return View.LAYER_TYPE_NONE;
+            }
+        });
+
+        mDrawerLayout.openDrawer();
+        mDrawerLayout.setDrawerOpen(true, false);
+
+        assertEquals(DuoDrawerLayout.STATE_IDLE, (int) states.get(0));
+        assertTrue(states.contains(DuoDrawerLayout.STATE_SETTLING));
+        assertEquals(DuoDrawerLayout.STATE_IDLE, (int) states.get(states.size() - 1));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    @UiThreadTest
+    public void nullPolicyIsRejected() throws Exception {
+        mDrawerLayout.setLayerPolicy(null);
+    }
+}
@@ -0,0 +1,155 @@
+package nl.psdcompany.duonavigationdrawer.views;
+
+import android.content.Context;
+import android.os.Debug;
+import android.view.MotionEvent;
+import android.view.View;
+import android.widget.FrameLayout;
+
+import androidx.test.annotation.UiThreadTest;
+import androidx.test.runner.AndroidJUnit4;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import static androidx.drawerlayout.widget.DrawerLayout.DrawerListener;
+import static org.junit.Assert.*;
+
+/**
+ * Drags the drawer open from the edge and checks that listeners can be added and removed
+ * while they are notified, and that a drag step doesn't allocate.
+ */
+@RunWith(AndroidJUnit4.class)
+public class DuoDrawerLayoutListenerTest {
+    private static final float DRAG_STEP = 5;
+
+    private DuoDrawerLayout mDrawerLayout;
+    private DrawerTestViews.EdgeDrag mDrag;
+
+    @Before
+    public void setUp() throws Exception {
+        Context context = DrawerTestViews.createContext();
+        mDrawerLayout = DrawerTestViews.createDrawer(context, new FrameLayout(context), new FrameLayout(context));
+        mDrag = new DrawerTestViews.EdgeDrag(mDrawerLayout);
+    }
+
+    @Test
+    @UiThreadTest
+    public void listenerAddedDuringDispatchIsNotifiedNextTime() throws Exception {
+        final CountingListener added = new CountingListener();
+        CountingListener adding = new CountingListener() {
+            @Override
+            public void onDrawerSlide(View drawerView, float slideOffset) {
+                super.onDrawerSlide(drawerView, slideOffset);
+                mDrawerLayout.addDrawerListener(added);
+            }
+        };
+        mDrawerLayout.addDrawerListener(adding);
+        mDrag.start();
+
+        mDrag.moveBy(DRAG_STEP);
+        assertEquals(1, adding.mSlides);
+        assertEquals(0, added.mSlides);
+
+        mDrag.moveBy(DRAG_STEP);
+        assertEquals(2, adding.mSlides);
+        assertEquals(1, added.mSlides);
+    }
+
+    @Test
+    @UiThreadTest
+    public void listenerRemovedDuringDispatchIsNotNotifiedNextTime() throws Exception {
+        final CountingListener removed = new CountingListener();
+        CountingListener removing = new CountingListener() {
+            @Override
+            public void onDrawerSlide(View drawerView, float slideOffset) {
+                super.onDrawerSlide(drawerView, slideOffset);
+                mDrawerLayout.removeDrawerListener(removed);
+                mDrawerLayout.removeDrawerListener(this);
+            }
+        };
+        mDrawerLayout.addDrawerListener(removing);
+        mDrawerLayout.addDrawerListener(removed);
+        mDrag.start();
+
+        mDrag.moveBy(DRAG_STEP);
+        assertEquals(1, removing.mSlides);
+        assertEquals(1, removed.mSlides);
+
+        mDrag.moveBy(DRAG_STEP);
+        assertEquals(1, removing.mSlides);
+        assertEquals(1, removed.mSlides);
+    }
+
+    @Test
+    @UiThreadTest
+    public void listenerIsOnlyAddedOnce() throws Exception {
+        CountingListener listener = new CountingListener();
+        mDrawerLayout.addDrawerListener(listener);
+        mDrawerLayout.addDrawerListener(listener);
+        mDrag.start();
+
+        mDrag.moveBy(DRAG_STEP);
+        assertEquals(1, listener.mSlides);
+    }
+
+    @Test
+    @UiThreadTest
+    @SuppressWarnings("deprecation")
+    public void dragDoesNotAllocate() throws Exception {
+        CountingListener first = new CountingListener();
+        CountingListener second = new CountingListener();
+        CountingListener third = new CountingListener();
+        mDrawerLayout.addDrawerListener(first);
+        mDrawerLayout.addDrawerListener(second);
+        mDrawerLayout.addDrawerListener(third);
+        mDrawerLayout.removeDrawerListener(second);
+
+        // The first moves set up the drag helper and its velocity tracker.
+        mDrag.start();
+        mDrag.moveBy(DRAG_STEP);
+        MotionEvent[] moves = new MotionEvent[50];
+        for (int i = 0; i < moves.length; i++) {
+            moves[i] = mDrag.obtainMove(DRAG_STEP);
+        }
+        int slides = first.mSlides;
+
+        Debug.resetThreadAllocCount();
+        Debug.startAllocCounting();
+        for (MotionEvent move : moves) {
+            mDrawerLayout.dispatchTouchEvent(move);
+        }
+        Debug.stopAllocCounting();
+
+        assertEquals(0, Debug.getThreadAllocCount());
+        assertEquals(slides + moves.length, first.mSlides);
+        assertEquals(0, second.mSlides);
+        assertEquals(first.mSlides, third.mSlides);
+
+        for (MotionEvent move : moves) {
+            move.recycle();
+        }
+    }
+
+    private static class CountingListener implements DrawerListener {
+        int mSlides;
+
+        @Override
+        public void onDrawerSlide(View drawerView, float slideOffset) {
+            mSlides++;
+        }
+
+        @Override
+        public void onDrawerOpened(View drawerView) {
+        }
+
+        @Override
+        public void onDrawerClosed(View drawerView) {
+        }
+
+        @Override
+        public void onDrawerStateChanged(int newState) {
+        }
+    }
+}
@@ -0,0 +1,97 @@
+package nl.psdcompany.duonavigationdrawer.views;
+
+import android.content.Context;
+import android.view.View;
+
+import androidx.test.annotation.UiThreadTest;
+import androidx.test.runner.AndroidJUnit4;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import static nl.psdcompany.duonavigationdrawer.views.DrawerTestViews.HEIGHT;
+import static nl.psdcompany.duonavigationdrawer.views.DrawerTestViews.WIDTH;
+import static org.junit.Assert.*;
+
+/**
+ * Checks that a measure pass of the drawer measures the content and menu at most once each,
+ * and that the menu of a closed drawer that the content covers isn't measured at all.
+ */
+@RunWith(AndroidJUnit4.class)
+public class DuoDrawerLayoutMeasureTest {
+    private DuoDrawerLayout mDrawerLayout;
+    private CountingView mContentView;
+    private CountingView mMenuView;
+
+    @Before
+    public void setUp() throws Exception {
+        Context context = DrawerTestViews.createContext();
+        mMenuView = new CountingView(context);
+        mContentView = new CountingView(context);
+        mDrawerLayout = DrawerTestViews.createDrawer(context, mMenuView, mContentView);
+    }
+
+    @Test
+    @UiThreadTest
+    public void measuresEachChildOncePerPass() throws Exception {
+        assertEquals(1, mContentView.mMeasures);
+        assertEquals(1, mMenuView.mMeasures);
+        assertEquals(WIDTH, mDrawerLayout.getMeasuredWidth());
+        assertEquals(HEIGHT, mDrawerLayout.getMeasuredHeight());
+
+        mDrawerLayout.requestLayout();
+        DrawerTestViews.measureAndLayout(mDrawerLayout, WIDTH, HEIGHT);
+        assertEquals(2, mContentView.mMeasures);
+        assertEquals(2, mMenuView.mMeasures);
+    }
+
+    @Test
+    @UiThreadTest
+    public void measuresEachChildOncePerPassWhileDragged() throws Exception {
+        DrawerTestViews.EdgeDrag drag = new DrawerTestViews.EdgeDrag(mDrawerLayout);
+        drag.start();
+        drag.moveBy(200);
+        int contentMeasures = mContentView.mMeasures;
+        int menuMeasures = mMenuView.mMeasures;
+
+        mMenuView.requestLayout();
+        mContentView.requestLayout();
+        DrawerTestViews.measureAndLayout(mDrawerLayout, WIDTH, HEIGHT);
+        assertEquals(contentMeasures + 1, mContentView.mMeasures);
+        assertEquals(menuMeasures + 1, mMenuView.mMeasures);
+    }
+
+    @Test
+    @UiThreadTest
+    public void coveredMenuIsMeasuredOnceTheDrawerOpens() throws Exception {
+        mDrawerLayout.setContentOpaque(true);
+        assertEquals(View.INVISIBLE, mMenuView.getVisibility());
+        int skippedMenuMeasures = mDrawerLayout.getSkippedMenuMeasureCount();
+
+        mMenuView.requestLayout();
+        mContentView.requestLayout();
+        DrawerTestViews.measureAndLayout(mDrawerLayout, WIDTH, HEIGHT);
+        assertEquals(2, mContentView.mMeasures);
+        assertEquals(1, mMenuView.mMeasures);
+        assertEquals(skippedMenuMeasures + 1, mDrawerLayout.getSkippedMenuMeasureCount());
+
+        mDrawerLayout.openDrawer();
+        assertEquals(2, mMenuView.mMeasures);
+        assertEquals(View.VISIBLE, mMenuView.getVisibility());
+    }
+
+    private static class CountingView extends View {
+        int mMeasures;
+
+        CountingView(Context context) {
+            super(context);
+        }
+
+        @Override
+        protected void onMeasure(int widthMeasureSpec, int heightMeasureSpec) {
+            mMeasures++;
+            super.onMeasure(widthMeasureSpec, heightMeasureSpec);
+        }
+    }
+}
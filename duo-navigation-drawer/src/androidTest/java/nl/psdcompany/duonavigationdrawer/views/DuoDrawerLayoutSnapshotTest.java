@@ -0,0 +1,153 @@
+package nl.psdcompany.duonavigationdrawer.views;
+
+import android.app.Instrumentation;
+import android.content.Context;
+import android.widget.FrameLayout;
+
+import androidx.test.InstrumentationRegistry;
+import androidx.test.runner.AndroidJUnit4;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import static org.junit.Assert.*;
+
+/**
+ * Checks when the content is drawn from a snapshot for each snapshot mode while the drawer
+ * is dragged open, and that switching the mode during the drag takes effect. The snapshot is
+ * captured from an idle handler, so the tests run off the main thread and wait for it to go idle.
+ */
+@RunWith(AndroidJUnit4.class)
+public class DuoDrawerLayoutSnapshotTest {
+    private static final float DRAG_DISTANCE = 200;
+
+    private Instrumentation mInstrumentation;
+    private DuoDrawerLayout mDrawerLayout;
+    private DrawerTestViews.EdgeDrag mDrag;
+
+    @Before
+    public void setUp() throws Exception {
+        mInstrumentation = InstrumentationRegistry.getInstrumentation();
+        mInstrumentation.runOnMainSync(new Runnable() {
+            @Override
+            public void run() {
+                Context context = DrawerTestViews.createContext();
+                mDrawerLayout = DrawerTestViews.createDrawer(context, new FrameLayout(context), new FrameLayout(context));
+                mDrag = new DrawerTestViews.EdgeDrag(mDrawerLayout);
+            }
+        });
+    }
+
+    @Test
+    public void offNeverSnapshots() throws Exception {
+        assertEquals(DuoDrawerLayout.CONTENT_SNAPSHOT_OFF, mDrawerLayout.getContentSnapshotMode());
+
+        drag();
+        assertFalse(mDrawerLayout.isContentSnapshotActive());
+    }
+
+    @Test
+    public void alwaysSnapshotsWhileDragged() throws Exception {
+        setContentSnapshotMode(DuoDrawerLayout.CONTENT_SNAPSHOT_ALWAYS);
+        assertFalse(mDrawerLayout.isContentSnapshotActive());
+
+        drag();
+        assertTrue(mDrawerLayout.isContentSnapshotActive());
+    }
+
+    @Test
+    public void snapshotWaitsForTheMainThreadToGoIdle() throws Exception {
+        final boolean[] activeDuringDrag = new boolean[1];
+        mInstrumentation.runOnMainSync(new Runnable() {
+            @Override
+            public void run() {
+                mDrawerLayout.setContentSnapshotMode(DuoDrawerLayout.CONTENT_SNAPSHOT_ALWAYS);
+                mDrag.start();
+                mDrag.moveBy(DRAG_DISTANCE);
+                activeDuringDrag[0] = mDrawerLayout.isContentSnapshotActive();
+            }
+        });
+        assertFalse(activeDuringDrag[0]);
+
+        mInstrumentation.waitForIdleSync();
+        assertTrue(mDrawerLayout.isContentSnapshotActive());
+    }
+
+    @Test
+    public void alwaysSnapshotsUntilPlacedClosed() throws Exception {
+        setContentSnapshotMode(DuoDrawerLayout.CONTENT_SNAPSHOT_ALWAYS);
+
+        setDrawerOpen(true);
+        assertTrue(mDrawerLayout.isContentSnapshotActive());
+
+        setDrawerOpen(false);
+        assertFalse(mDrawerLayout.isContentSnapshotActive());
+    }
+
+    @Test
+    public void switchingOnWhileDraggedSnapshots() throws Exception {
+        drag();
+
+        setContentSnapshotMode(DuoDrawerLayout.CONTENT_SNAPSHOT_ALWAYS);
+        assertTrue(mDrawerLayout.isContentSnapshotActive());
+    }
+
+    @Test
+    public void switchingOffWhileDraggedDrawsLiveContent() throws Exception {
+        setContentSnapshotMode(DuoDrawerLayout.CONTENT_SNAPSHOT_ALWAYS);
+        drag();
+
+        setContentSnapshotMode(DuoDrawerLayout.CONTENT_SNAPSHOT_OFF);
+        assertFalse(mDrawerLayout.isContentSnapshotActive());
+    }
+
+    @Test
+    public void autoWaitsForSlowFrames() throws Exception {
+        setContentSnapshotMode(DuoDrawerLayout.CONTENT_SNAPSHOT_AUTO);
+
+        drag();
+        assertFalse(mDrawerLayout.isContentSnapshotActive());
+    }
+
+    /**
+     * Drags the drawer partly open from the edge, without releasing it,
+     * and waits for the main thread to go idle.
+     */
+    private void drag() {
+        mInstrumentation.runOnMainSync(new Runnable() {
+            @Override
+            public void run() {
+                mDrag.start();
+                mDrag.moveBy(DRAG_DISTANCE);
+            }
+        });
+        mInstrumentation.waitForIdleSync();
+    }
+
+    /**
+     * Opens or closes the drawer without animating and waits for the main thread to go idle.
+     */
+    private void setDrawerOpen(final boolean open) {
+        mInstrumentation.runOnMainSync(new Runnable() {
+            @Override
+            public void run() {
+                mDrawerLayout.setDrawerOpen(open, false);
+            }
+        });
+        mInstrumentation.waitForIdleSync();
+    }
+
+    /**
+     * Switches the snapshot mode and waits for the main thread to go idle.
+     */
+    private void setContentSnapshotMode(final int contentSnapshotMode) {
+        mInstrumentation.runOnMainSync(new Runnable() {
+            @Override
+            public void run() {
+                mDrawerLayout.setContentSnapshotMode(contentSnapshotMode);
+            }
+        });
+        mInstrumentation.waitForIdleSync();
+    }
+}
@@ -0,0 +1,109 @@
+package nl.psdcompany.duonavigationdrawer.views;
+
+import android.content.Context;
+import android.view.View;
+
+import androidx.test.annotation.UiThreadTest;
+import androidx.test.runner.AndroidJUnit4;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import static org.junit.Assert.*;
+
+/**
+ * Checks that selecting an option only changes the drawable state of its views
+ * and never causes a layout pass.
+ */
+@RunWith(AndroidJUnit4.class)
+public class DuoOptionViewSelectionTest {
+    private CountingOptionView mOptionView;
+
+    @Before
+    public void setUp() throws Exception {
+        mOptionView = new CountingOptionView(DrawerTestViews.createContext());
+        mOptionView.bind("Option", null, null);
+        layout();
+        mOptionView.mLayoutRequests = 0;
+        mOptionView.mLayouts = 0;
+    }
+
+    @Test
+    @UiThreadTest
+    public void selectingDoesNotRequestLayout() throws Exception {
+        mOptionView.setSelected(true);
+        mOptionView.setSelected(false);
+
+        assertEquals(0, mOptionView.mLayoutRequests);
+        assertFalse(mOptionView.isLayoutRequested());
+    }
+
+    @Test
+    @UiThreadTest
+    public void selectingCausesNoLayoutPass() throws Exception {
+        mOptionView.setSelected(true);
+        relayout();
+        mOptionView.setSelected(false);
+        relayout();
+
+        assertEquals(0, mOptionView.mLayouts);
+    }
+
+    @Test
+    @UiThreadTest
+    public void activatingShowsAsSelected() throws Exception {
+        mOptionView.setActivated(true);
+
+        assertTrue(containsSelectedState(mOptionView.getDrawableState()));
+        assertEquals(0, mOptionView.mLayoutRequests);
+    }
+
+    /**
+     * Lays the option out again only if it asked for it, like the view hierarchy does.
+     */
+    private void relayout() {
+        if (mOptionView.isLayoutRequested()) {
+            layout();
+        }
+    }
+
+    /**
+     * Measures the option at the width of the drawer and its own height and lays it out.
+     */
+    private void layout() {
+        mOptionView.measure(View.MeasureSpec.makeMeasureSpec(DrawerTestViews.WIDTH, View.MeasureSpec.EXACTLY),
+                View.MeasureSpec.makeMeasureSpec(0, View.MeasureSpec.UNSPECIFIED));
+        mOptionView.layout(0, 0, mOptionView.getMeasuredWidth(), mOptionView.getMeasuredHeight());
+    }
+
+    private static boolean containsSelectedState(int[] drawableState) {
+        for (int state : drawableState) {
+            if (state == android.R.attr.state_selected) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static class CountingOptionView extends DuoOptionView {
+        int mLayoutRequests;
+        int mLayouts;
+
+        CountingOptionView(Context context) {
+            super(context);
+        }
+
+        @Override
+        public void requestLayout() {
+            mLayoutRequests++;
+            super.requestLayout();
+        }
+
+        @Override
+        protected void onLayout(boolean changed, int l, int t, int r, int b) {
+            mLayouts++;
+            super.onLayout(changed, l, t, r, b);
+        }
+    }
+}
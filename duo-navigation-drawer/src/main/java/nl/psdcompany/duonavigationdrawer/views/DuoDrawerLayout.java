@@ -1,29 +1,49 @@
 package nl.psdcompany.duonavigationdrawer.views;
 
+import android.animation.Animator;
+import android.animation.AnimatorListenerAdapter;
+import android.annotation.TargetApi;
+import android.content.ComponentCallbacks2;
 import android.content.Context;
 import android.content.res.Configuration;
 import android.content.res.TypedArray;
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.graphics.Paint;
+import android.graphics.Rect;
+import android.graphics.RectF;
+import android.graphics.Region;
 import android.os.Build;
 import android.os.Bundle;
+import android.os.Looper;
+import android.os.MessageQueue;
 import android.os.Parcelable;
 import androidx.annotation.IntDef;
 import androidx.annotation.LayoutRes;
 import androidx.core.view.MotionEventCompat;
 import androidx.core.view.ViewCompat;
 import androidx.customview.widget.ViewDragHelper;
-import androidx.appcompat.widget.Toolbar;
 import android.util.AttributeSet;
+import android.view.Choreographer;
 import android.view.KeyEvent;
 import android.view.LayoutInflater;
 import android.view.MotionEvent;
+import android.view.VelocityTracker;
 import android.view.View;
+import android.view.ViewConfiguration;
 import android.view.ViewGroup;
-import android.view.ViewTreeObserver;
-import android.widget.RelativeLayout;
+import android.view.WindowInsets;
+import android.view.accessibility.AccessibilityEvent;
+import android.view.animation.AnimationUtils;
+import android.view.animation.DecelerateInterpolator;
+import android.view.animation.Interpolator;
 
 import java.lang.annotation.Retention;
 import java.lang.annotation.RetentionPolicy;
+import java.util.ArrayList;
+import java.util.List;
 
+import nl.psdcompany.duonavigationdrawer.widgets.ScaleDrawerTransformer;
 import nl.psdcompany.psd.duonavigationdrawer.R;
 
 import static androidx.drawerlayout.widget.DrawerLayout.DrawerListener;
@@ -32,7 +52,7 @@ import static androidx.drawerlayout.widget.DrawerLayout.DrawerListener;
  * Created by PSD on 28-02-17.
  */
 
-public class DuoDrawerLayout extends RelativeLayout {
+public class DuoDrawerLayout extends ViewGroup {
     /**
      * Indicates that any drawers are in an idle, settled state. No animation is in progress.
      */
@@ -61,16 +81,82 @@ public class DuoDrawerLayout extends RelativeLayout {
     public static final int LOCK_MODE_LOCKED_OPEN = 2;
 
     /**
-     * Length of time to delay before peeking the drawer.
+     * The live content is always drawn.
      */
-    private static final int PEEK_DELAY = 160;
+    public static final int CONTENT_SNAPSHOT_OFF = 0;
+    /**
+     * The content is drawn from a snapshot whenever the drawer is not closed.
+     */
+    public static final int CONTENT_SNAPSHOT_ALWAYS = 1;
+    /**
+     * The content is drawn from a snapshot whenever the drawer is not closed,
+     * but only once frames turned out to be slow while the drawer moved.
+     */
+    public static final int CONTENT_SNAPSHOT_AUTO = 2;
+
+    /**
+     * The menu layout is inflated the first time the drawer is about to open.
+     */
+    public static final int MENU_WARM_UP_LAZY = 0;
+    /**
+     * The menu layout is inflated, measured, laid out and drawn once the main thread
+     * is idle after the first frame.
+     */
+    public static final int MENU_WARM_UP_IDLE_PREWARM = 1;
+    /**
+     * The menu layout is inflated when the drawer is attached to a window, before its first layout pass.
+     */
+    public static final int MENU_WARM_UP_EAGER = 2;
+    /**
+     * The menu layout is inflated, measured, laid out and drawn in the next animation frame
+     * after a touch goes down on the edge, while that touch is still short of the touch slop.
+     */
+    public static final int MENU_WARM_UP_EDGE_TOUCH = 3;
+
+    /**
+     * Never promotes the content and menu to a hardware layer.
+     */
+    public static final LayerPolicy LAYER_POLICY_NONE = new LayerPolicy() {
+        @Override
+        public int getLayerType(View view, int state, float dragOffset) {
+            return View.LAYER_TYPE_NONE;
+        }
+    };
+    /**
+     * Promotes the content and menu to a hardware layer while the drawer is
+     * being dragged or settling and releases the layers once it is idle again.
+     */
+    public static final LayerPolicy LAYER_POLICY_ANIMATION_ONLY = new LayerPolicy() {
+        @Override
+        public int getLayerType(View view, int state, float dragOffset) {
+            return state == STATE_IDLE ? View.LAYER_TYPE_NONE : View.LAYER_TYPE_HARDWARE;
+        }
+    };
+    /**
+     * Keeps the content and menu on a hardware layer at all times.
+     */
+    public static final LayerPolicy LAYER_POLICY_ALWAYS = new LayerPolicy() {
+        @Override
+        public int getLayerType(View view, int state, float dragOffset) {
+            return View.LAYER_TYPE_HARDWARE;
+        }
+    };
 
     private static final String TAG_MENU = "menu";
     private static final String TAG_CONTENT = "content";
-    private static final String TAG_OVERLAY = "overlay";
+
+    private static final int LAYER_POLICY_ATTRIBUTE_NONE = 0;
+    private static final int LAYER_POLICY_ATTRIBUTE_ANIMATION_ONLY = 1;
+    private static final int LAYER_POLICY_ATTRIBUTE_ALWAYS = 2;
 
     @LayoutRes
     private static final int DEFAULT_ATTRIBUTE_VALUE = -54321;
+    private static final String MISSING_MENU_MESSAGE = "Missing menu layout. " +
+            "Set a \"menu\" tag on the menu layout (in XML android:xml=\"menu\"). " +
+            "Or set the \"app:menu\" attribute on the drawer layout.";
+    private static final String MISSING_CONTENT_MESSAGE = "Missing content layout. " +
+            "Set a \"content\" tag on the content layout (in XML android:xml=\"content\"). " +
+            "Or set the \"app:content\" attribute on the drawer layout.";
     private static final float CONTENT_SCALE_CLOSED = 1.0f;
     private static final float CONTENT_SCALE_OPEN = 0.7f;
     private static final float CLICK_TO_CLOSE_SCALE = 0.7f;
@@ -79,9 +165,16 @@ public class DuoDrawerLayout extends RelativeLayout {
     private static final float MENU_ALPHA_CLOSED = 0.0f;
     private static final float MENU_ALPHA_OPEN = 1.0f;
     private static final float MARGIN_FACTOR = 0.7f;
+    private static final float SETTLE_STIFFNESS = 1500f;
+    private static final float SETTLE_DAMPING_RATIO = 1.0f;
+    private static final long ANIMATION_DURATION = 250;
+    private static final long CONTENT_FRAME_TIME_THRESHOLD = 24000000;
+
+    private static final float NO_PENDING_DRAG_OFFSET = -1;
+    private static final long TOUCH_PREDICTION = 4;
+    private static final long MAX_TOUCH_PREDICTION = 8;
 
-    private static final float MAX_ATTRIBUTE_MULTIPLIER = 100f;
-    private static final float MAX_CLICK_RANGE = 300f;
+    private static final DrawerListener[] NO_DRAWER_LISTENERS = new DrawerListener[0];
 
     private float mContentScaleClosed = CONTENT_SCALE_CLOSED;
     private float mContentScaleOpen = CONTENT_SCALE_OPEN;
@@ -91,10 +184,19 @@ public class DuoDrawerLayout extends RelativeLayout {
     private float mMenuAlphaOpen = MENU_ALPHA_OPEN;
     private float mMarginFactor = MARGIN_FACTOR;
     private float mClickToCloseScale = CLICK_TO_CLOSE_SCALE;
+    private float mSettleStiffness = SETTLE_STIFFNESS;
+    private float mSettleDampingRatio = SETTLE_DAMPING_RATIO;
+    private boolean mPropertySettleEnabled;
+
+    private int mOpenWidth;
+    private int mTopInset;
+    private boolean mIsLandscape;
 
     private float mDragOffset;
     private float mDraggedXOffset;
     private float mDraggedYOffset;
+    private float mPendingDragOffset = NO_PENDING_DRAG_OFFSET;
+    private boolean mPendingOpen;
 
     @LockMode
     private int mLockMode;
@@ -109,11 +211,105 @@ public class DuoDrawerLayout extends RelativeLayout {
     private ViewDragHelper mViewDragHelper;
     private LayoutInflater mLayoutInflater;
     private DrawerListener mDrawerListener;
+    private DrawerListener[] mDrawerListeners = NO_DRAWER_LISTENERS;
     private ViewDragCallback mViewDragCallback;
+    private SpringSettler mSpringSettler;
+    private OffsetAnimator mOffsetAnimator;
+    private PropertySettler mPropertySettler;
+    private TouchResampler mTouchResampler;
+    private LayerPolicy mLayerPolicy = LAYER_POLICY_ANIMATION_ONLY;
+    private ScaleDrawerTransformer mScaleDrawerTransformer;
+    private DrawerTransformer mDrawerTransformer;
 
     private View mContentView;
     private View mMenuView;
 
+    private View mPassThroughView;
+    private boolean mInputGatingEnabled = true;
+    private boolean mInputGatingResolved;
+    private boolean mMenuGated;
+    private boolean mContentGated;
+
+    private boolean mContentOpaque;
+
+    private boolean mIsClickToCloseGesture;
+    private boolean mIsClickToCloseCaptured;
+    private float mClickToCloseStartX;
+    private float mClickToCloseStartY;
+
+    @SnapshotMode
+    private int mContentSnapshotMode = CONTENT_SNAPSHOT_OFF;
+    private boolean mContentSnapshotActive;
+    private Bitmap mContentSnapshot;
+    private Canvas mContentSnapshotCanvas;
+    private Paint mContentSnapshotPaint;
+    private boolean mContentSnapshotPending;
+    private final MessageQueue.IdleHandler mContentSnapshotCapture = new MessageQueue.IdleHandler() {
+        @Override
+        public boolean queueIdle() {
+            mContentSnapshotPending = false;
+            if ((mDragOffset > 0 || mDrawerState != STATE_IDLE) && shouldSnapshotContent()) {
+                captureContentSnapshot();
+            }
+            return false;
+        }
+    };
+    private final ComponentCallbacks2 mTrimMemoryCallbacks = new ComponentCallbacks2() {
+        @Override
+        public void onTrimMemory(int level) {
+            if (level >= TRIM_MEMORY_RUNNING_LOW) {
+                releaseContentSnapshot();
+                recycleContentSnapshot();
+            }
+        }
+
+        @Override
+        public void onLowMemory() {
+            releaseContentSnapshot();
+            recycleContentSnapshot();
+        }
+
+        @Override
+        public void onConfigurationChanged(Configuration configuration) {
+        }
+    };
+    private long mContentFrameTime;
+    private ContentFrameTimer mContentFrameTimer;
+
+    @MenuWarmUp
+    private int mMenuWarmUp = MENU_WARM_UP_EAGER;
+    private boolean mMenuPrewarmScheduled;
+    private boolean mMenuPrewarmed;
+    private boolean mMenuPrewarmPosted;
+    private final Runnable mMenuPrewarmRunnable = new Runnable() {
+        @Override
+        public void run() {
+            mMenuPrewarmPosted = false;
+            if (ViewCompat.isAttachedToWindow(DuoDrawerLayout.this)) {
+                prewarmMenu();
+            }
+        }
+    };
+
+    private int mWidthMeasureSpec;
+    private int mHeightMeasureSpec;
+    private boolean mHasMeasureSpecs;
+    private boolean mMenuLayoutDeferred;
+    private boolean mContentLayoutDeferred;
+    private int mSkippedMenuMeasures;
+    private int mSkippedMenuLayouts;
+
+    private boolean mContentFreezeEnabled;
+    private boolean mContentFrozen;
+    private ContentFreezeListener mContentFreezeListener;
+    private final List<Animator> mFreezableAnimators = new ArrayList<>();
+    private final List<Animator> mPausedAnimators = new ArrayList<>();
+
+    private final RectF mTmpRectF = new RectF();
+    private final RectF mTmpMenuRectF = new RectF();
+    private final Rect mTmpRect = new Rect();
+    private final int[] mTmpLocation = new int[2];
+
     public DuoDrawerLayout(Context context) {
         this(context, null);
     }
@@ -142,6 +338,14 @@ public class DuoDrawerLayout extends RelativeLayout {
             mMenuAlphaOpen = typedArray.getFloat(R.styleable.DuoDrawerLayout_menuAlphaOpen, MENU_ALPHA_OPEN);
             mMarginFactor = typedArray.getFloat(R.styleable.DuoDrawerLayout_marginFactor, MARGIN_FACTOR);
             mClickToCloseScale = typedArray.getFloat(R.styleable.DuoDrawerLayout_clickToCloseScale, CLICK_TO_CLOSE_SCALE);
+            mSettleStiffness = typedArray.getFloat(R.styleable.DuoDrawerLayout_settleStiffness, SETTLE_STIFFNESS);
+            mSettleDampingRatio = typedArray.getFloat(R.styleable.DuoDrawerLayout_settleDampingRatio, SETTLE_DAMPING_RATIO);
+            mPropertySettleEnabled = typedArray.getBoolean(R.styleable.DuoDrawerLayout_propertySettle, false);
+            mLayerPolicy = getLayerPolicy(typedArray.getInt(R.styleable.DuoDrawerLayout_layerPolicy, LAYER_POLICY_ATTRIBUTE_ANIMATION_ONLY));
+            mContentSnapshotMode = getContentSnapshotMode(typedArray.getInt(R.styleable.DuoDrawerLayout_contentSnapshot, CONTENT_SNAPSHOT_OFF));
+            mContentFreezeEnabled = typedArray.getBoolean(R.styleable.DuoDrawerLayout_freezeContent, false);
+            mContentOpaque = typedArray.getBoolean(R.styleable.DuoDrawerLayout_contentOpaque, false);
+            mMenuWarmUp = getMenuWarmUp(typedArray.getInt(R.styleable.DuoDrawerLayout_menuWarmUp, MENU_WARM_UP_EAGER));
         } finally {
             typedArray.recycle();
         }
@@ -152,703 +356,3042 @@ public class DuoDrawerLayout extends RelativeLayout {
         mViewDragCallback = new ViewDragCallback();
         mViewDragHelper = ViewDragHelper.create(this, 1.0f, mViewDragCallback);
         mViewDragHelper.setEdgeTrackingEnabled(ViewDragHelper.EDGE_LEFT);
+        mSpringSettler = new SpringSettler();
+        mOffsetAnimator = new OffsetAnimator();
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.KITKAT) {
+            mPropertySettler = new PropertySettler();
+        }
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.JELLY_BEAN) {
+            mTouchResampler = new TouchResampler();
+            mContentFrameTimer = new ContentFrameTimer();
+        }
+
+        mTopInset = getStatusBarHeight();
+        mIsLandscape = getResources().getConfiguration().orientation == Configuration.ORIENTATION_LANDSCAPE;
+
+        mScaleDrawerTransformer = new ScaleDrawerTransformer();
+        mDrawerTransformer = mScaleDrawerTransformer;
+        updateScaleDrawerTransformer();
 
         this.setFocusableInTouchMode(true);
         this.setClipChildren(false);
         this.requestFocus();
     }
 
-    private float map(float x, float inMin, float inMax, float outMin, float outMax) {
-        return (x - inMin) * (outMax - outMin) / ((int) inMax - inMin) + outMin;
+    /**
+     * Maps the value of the layerPolicy attribute to one of the built in policies.
+     */
+    private static LayerPolicy getLayerPolicy(int layerPolicyAttribute) {
+        switch (layerPolicyAttribute) {
+            case LAYER_POLICY_ATTRIBUTE_NONE:
+                return LAYER_POLICY_NONE;
+            case LAYER_POLICY_ATTRIBUTE_ALWAYS:
+                return LAYER_POLICY_ALWAYS;
+            case LAYER_POLICY_ATTRIBUTE_ANIMATION_ONLY:
+            default:
+                return LAYER_POLICY_ANIMATION_ONLY;
+        }
+    }
+
+    /**
+     * Maps the value of the menuWarmUp attribute to one of the warm-up policies.
+     */
+    @MenuWarmUp
+    private static int getMenuWarmUp(int menuWarmUpAttribute) {
+        switch (menuWarmUpAttribute) {
+            case MENU_WARM_UP_LAZY:
+                return MENU_WARM_UP_LAZY;
+            case MENU_WARM_UP_IDLE_PREWARM:
+                return MENU_WARM_UP_IDLE_PREWARM;
+            case MENU_WARM_UP_EDGE_TOUCH:
+                return MENU_WARM_UP_EDGE_TOUCH;
+            case MENU_WARM_UP_EAGER:
+            default:
+                return MENU_WARM_UP_EAGER;
+        }
+    }
+
+    /**
+     * Maps the value of the contentSnapshot attribute to one of the snapshot modes.
+     */
+    @SnapshotMode
+    private static int getContentSnapshotMode(int contentSnapshotAttribute) {
+        switch (contentSnapshotAttribute) {
+            case CONTENT_SNAPSHOT_ALWAYS:
+                return CONTENT_SNAPSHOT_ALWAYS;
+            case CONTENT_SNAPSHOT_AUTO:
+                return CONTENT_SNAPSHOT_AUTO;
+            case CONTENT_SNAPSHOT_OFF:
+            default:
+                return CONTENT_SNAPSHOT_OFF;
+        }
+    }
+
+    /**
+     * Passes the scale and alpha values to the current transformer if it is a {@link ScaleDrawerTransformer}.
+     */
+    private void updateScaleDrawerTransformer() {
+        if (!(mDrawerTransformer instanceof ScaleDrawerTransformer)) return;
+
+        ScaleDrawerTransformer scaleDrawerTransformer = (ScaleDrawerTransformer) mDrawerTransformer;
+        scaleDrawerTransformer.setContentScale(mContentScaleClosed, mContentScaleOpen);
+        scaleDrawerTransformer.setMenuScale(mMenuScaleClosed, mMenuScaleOpen);
+        scaleDrawerTransformer.setMenuAlpha(mMenuAlphaClosed, mMenuAlphaOpen);
+    }
+
+    /**
+     * Lets the current transformer know the size of the drawer changed.
+     */
+    private void dispatchTransformerSizeChanged() {
+        mDrawerTransformer.onSizeChanged(getWidth(), getHeight(), mOpenWidth);
+    }
+
+    /**
+     * Applies the current transformer to the content and menu at the current drag offset.
+     */
+    private void transformViews() {
+        mDrawerTransformer.transformViews(mContentView, mMenuView, mDragOffset);
     }
 
     @Override
-    protected void onLayout(boolean changed, int l, int t, int r, int b) {
-        super.onLayout(changed, l, t, r, b);
-        handleViews();
+    protected void onSizeChanged(int w, int h, int oldw, int oldh) {
+        super.onSizeChanged(w, h, oldw, oldh);
+        mOpenWidth = (int) (w * mMarginFactor);
+        dispatchTransformerSizeChanged();
+
+        // Keep an idle drawer at the same offset, the next layout pass moves the content there.
+        if (mDrawerState == STATE_IDLE && !isAnimating()) {
+            mDraggedXOffset = Math.round(mOpenWidth * mDragOffset);
+        }
+    }
+
+    @TargetApi(Build.VERSION_CODES.KITKAT_WATCH)
+    @Override
+    public WindowInsets onApplyWindowInsets(WindowInsets insets) {
+        mTopInset = insets.getSystemWindowInsetTop();
+        return super.onApplyWindowInsets(insets);
+    }
 
-        mContentView.offsetLeftAndRight((int) mDraggedXOffset);
-        mContentView.offsetTopAndBottom((int) mDraggedYOffset);
+    @Override
+    protected void onConfigurationChanged(Configuration newConfig) {
+        super.onConfigurationChanged(newConfig);
+        mIsLandscape = newConfig.orientation == Configuration.ORIENTATION_LANDSCAPE;
     }
 
+    /**
+     * Reads the height of the status bar from the system resources.
+     * Only used until the first window insets arrive.
+     *
+     * @return Height of the status bar in pixels or 0 when unknown.
+     */
+    private int getStatusBarHeight() {
+        int resourceId = getResources().getIdentifier("status_bar_height", "dimen", "android");
+        return resourceId > 0 ? getResources().getDimensionPixelSize(resourceId) : 0;
+    }
 
     /**
-     * Checks if it can find the menu & content views with their tags.
-     * If this fails it will check for the corresponding attribute.
-     * If this fails it wil throw an IllegalStateException.
+     * Measures every child exactly once. The children are stacked on top of each other,
+     * so the drawer is as large as its largest child unless its own size is fixed.
      */
-    private void handleViews() {
+    @Override
+    protected void onMeasure(int widthMeasureSpec, int heightMeasureSpec) {
+        checkViews();
+
+        // While the drawer is closed the menu keeps its last measurement and while the content
+        // is frozen the content does, unless the size of the drawer itself changed.
+        boolean sameMeasureSpecs = mHasMeasureSpecs && widthMeasureSpec == mWidthMeasureSpec
+                && heightMeasureSpec == mHeightMeasureSpec;
+        mMenuLayoutDeferred = sameMeasureSpecs && canDeferMenuLayout();
+        mContentLayoutDeferred = sameMeasureSpecs && mContentFrozen && ViewCompat.isLaidOut(mContentView);
+        mWidthMeasureSpec = widthMeasureSpec;
+        mHeightMeasureSpec = heightMeasureSpec;
+        mHasMeasureSpecs = true;
+
+        int maxWidth = 0;
+        int maxHeight = 0;
+        int childState = 0;
+
         for (int i = 0; i < getChildCount(); i++) {
-            View view = getChildAt(i);
+            View child = getChildAt(i);
+            if (child.getVisibility() == GONE) continue;
 
-            try {
-                String tag = (String) view.getTag();
-                if (tag.equals(TAG_CONTENT)) {
-                    mContentView = view;
-                } else if (tag.equals(TAG_MENU)) {
-                    mMenuView = view;
-                }
-            } catch (Exception ignored) {
+            if (child == mMenuView && mMenuLayoutDeferred) {
+                mSkippedMenuMeasures++;
+            } else if (child == mContentView && mContentLayoutDeferred) {
+                // Keeps its layout request pending until the content thaws.
+            } else {
+                measureChildWithMargins(child, widthMeasureSpec, 0, heightMeasureSpec, 0);
             }
-            if (mContentView != null && mMenuView != null) break;
-        }
 
-        if (mMenuView == null) {
-            checkForMenuAttribute();
+            MarginLayoutParams layoutParams = (MarginLayoutParams) child.getLayoutParams();
+            maxWidth = Math.max(maxWidth, child.getMeasuredWidth() + layoutParams.leftMargin + layoutParams.rightMargin);
+            maxHeight = Math.max(maxHeight, child.getMeasuredHeight() + layoutParams.topMargin + layoutParams.bottomMargin);
+            childState = combineMeasuredStates(childState, child.getMeasuredState());
         }
 
-        if (mContentView == null) {
-            checkForContentAttribute();
-        }
+        maxWidth = Math.max(maxWidth + getPaddingLeft() + getPaddingRight(), getSuggestedMinimumWidth());
+        maxHeight = Math.max(maxHeight + getPaddingTop() + getPaddingBottom(), getSuggestedMinimumHeight());
 
-        if (mDragOffset == 0) {
-            setViewAndChildrenEnabled(mContentView, true);
-            setViewAndChildrenEnabled(mMenuView, false);
-        }
+        setMeasuredDimension(resolveSizeAndState(maxWidth, widthMeasureSpec, childState),
+                resolveSizeAndState(maxHeight, heightMeasureSpec, childState << MEASURED_HEIGHT_STATE_SHIFT));
     }
 
     /**
-     * Checks if it can inflate the menu view with its corresponding attribute.
-     * If this fails it wil throw an IllegalStateException.
+     * Places every child in the top left corner, the content is moved to where it was dragged.
      */
-    private void checkForMenuAttribute() {
-        if (mMenuViewId == DEFAULT_ATTRIBUTE_VALUE) {
-            throw new IllegalStateException("Missing menu layout. " +
-                    "Set a \"menu\" tag on the menu layout (in XML android:xml=\"menu\"). " +
-                    "Or set the \"app:menu\" attribute on the drawer layout.");
+    @Override
+    protected void onLayout(boolean changed, int l, int t, int r, int b) {
+        for (int i = 0; i < getChildCount(); i++) {
+            View child = getChildAt(i);
+            if (child.getVisibility() == GONE) continue;
+
+            if (child == mMenuView && mMenuLayoutDeferred) {
+                mSkippedMenuLayouts++;
+                continue;
+            }
+
+            MarginLayoutParams layoutParams = (MarginLayoutParams) child.getLayoutParams();
+            int left = getPaddingLeft() + layoutParams.leftMargin;
+            int top = getPaddingTop() + layoutParams.topMargin;
+
+            if (child == mContentView) {
+                left += (int) mDraggedXOffset;
+                top += (int) mDraggedYOffset;
+
+                if (mContentLayoutDeferred) {
+                    // Moving the frozen content doesn't lay it out or clear its layout request.
+                    ViewCompat.offsetLeftAndRight(child, left - child.getLeft());
+                    ViewCompat.offsetTopAndBottom(child, top - child.getTop());
+                    continue;
+                }
+            }
+
+            child.layout(left, top, left + child.getMeasuredWidth(), top + child.getMeasuredHeight());
         }
+        updateMenuVisibility();
 
-        mMenuView = mLayoutInflater.inflate(mMenuViewId, this, false);
+        if (mOpenWidth > 0 && mContentView != null) {
+            mOffsetAnimator.startPendingRequest();
 
-        if (mMenuView != null) {
-            mMenuView.setTag(TAG_MENU);
-            addView(mMenuView);
+            if (mPendingDragOffset != NO_PENDING_DRAG_OFFSET) {
+                float dragOffset = mPendingDragOffset;
+                mPendingDragOffset = NO_PENDING_DRAG_OFFSET;
+                placeDrawer(dragOffset);
+            }
+
+            if (mPendingOpen) {
+                mPendingOpen = false;
+                settleContentTo(mOpenWidth);
+            }
         }
     }
 
     /**
-     * Checks if it can inflate the content view with its corresponding attribute.
-     * If this fails it wil throw an IllegalStateException.
+     * Checks if measuring and laying out the menu can wait, because the drawer is closed,
+     * the menu is hidden and it has been laid out before.
      */
-    private void checkForContentAttribute() {
-        if (mContentViewId == DEFAULT_ATTRIBUTE_VALUE) {
-            throw new IllegalStateException("Missing content layout. " +
-                    "Set a \"content\" tag on the content layout (in XML android:xml=\"content\"). " +
-                    "Or set the \"app:content\" attribute on the drawer layout.");
-        }
+    private boolean canDeferMenuLayout() {
+        return mMenuView != null && mDragOffset == 0 && mDrawerState == STATE_IDLE
+                && mMenuView.getVisibility() == INVISIBLE && ViewCompat.isLaidOut(mMenuView);
+    }
 
-        mContentView = mLayoutInflater.inflate(mContentViewId, this, false);
+    /**
+     * Measures and lays out the menu right away if that was skipped while the drawer was closed.
+     * Called before the drawer starts to move, so the first frame shows an up to date menu.
+     */
+    private void layoutDeferredMenu() {
+        if (!mMenuLayoutDeferred) return;
 
-        if (mContentView != null) {
-            mContentView.setTag(TAG_CONTENT);
-            addView(mContentView);
+        mMenuLayoutDeferred = false;
+        if (mMenuView != null) {
+            layoutMenu(mWidthMeasureSpec, mHeightMeasureSpec);
         }
     }
 
+    /**
+     * Measures the menu and places it in the top left corner.
+     */
+    private void layoutMenu(int widthMeasureSpec, int heightMeasureSpec) {
+        measureChildWithMargins(mMenuView, widthMeasureSpec, 0, heightMeasureSpec, 0);
+
+        MarginLayoutParams layoutParams = (MarginLayoutParams) mMenuView.getLayoutParams();
+        int left = getPaddingLeft() + layoutParams.leftMargin;
+        int top = getPaddingTop() + layoutParams.topMargin;
+        mMenuView.layout(left, top, left + mMenuView.getMeasuredWidth(), top + mMenuView.getMeasuredHeight());
+    }
+
     @Override
-    protected Parcelable onSaveInstanceState() {
-        Bundle bundle = new Bundle();
-        bundle.putParcelable("superState", super.onSaveInstanceState());
-        bundle.putFloat("dragOffset", mDragOffset);
-        return bundle;
+    public boolean shouldDelayChildPressedState() {
+        return false;
     }
 
     @Override
-    protected void onRestoreInstanceState(Parcelable state) {
-        if (state instanceof Bundle) {
-            Bundle bundle = (Bundle) state;
-            state = bundle.getParcelable("superState");
-            if (bundle.getFloat("dragOffset", 0f) > .6f) {
-                openDrawer();
-            }
-        }
-        super.onRestoreInstanceState(state);
+    protected LayoutParams generateDefaultLayoutParams() {
+        return new MarginLayoutParams(LayoutParams.MATCH_PARENT, LayoutParams.MATCH_PARENT);
     }
 
     @Override
-    public boolean onKeyDown(int keyCode, KeyEvent event) {
-        if (isDrawerOpen() && keyCode == KeyEvent.KEYCODE_BACK) {
-            closeDrawer();
-            return true;
-        } else {
-            return super.onKeyDown(keyCode, event);
-        }
+    public LayoutParams generateLayoutParams(AttributeSet attrs) {
+        return new MarginLayoutParams(getContext(), attrs);
     }
 
     @Override
-    public void computeScroll() {
-        super.computeScroll();
-        if (mViewDragHelper.continueSettling(true)) {
-            ViewCompat.postInvalidateOnAnimation(this);
-        } else {
-            mDraggedXOffset = mContentView.getLeft();
-            mDraggedYOffset = mContentView.getTop();
+    protected LayoutParams generateLayoutParams(LayoutParams layoutParams) {
+        if (layoutParams instanceof MarginLayoutParams) {
+            return new MarginLayoutParams((MarginLayoutParams) layoutParams);
         }
+        return new MarginLayoutParams(layoutParams);
     }
 
     @Override
-    public boolean onInterceptTouchEvent(MotionEvent ev) {
-        final int action = MotionEventCompat.getActionMasked(ev);
-
-        switch (action) {
-            case MotionEvent.ACTION_CANCEL:
-            case MotionEvent.ACTION_UP: {
-                mViewDragHelper.cancel();
-                return false;
-            }
-        }
+    protected boolean checkLayoutParams(LayoutParams layoutParams) {
+        return layoutParams instanceof MarginLayoutParams;
+    }
 
-        return mViewDragHelper.shouldInterceptTouchEvent(ev);
+    @Override
+    protected void onFinishInflate() {
+        super.onFinishInflate();
+        handleContentView();
     }
 
     @Override
-    public boolean onTouchEvent(MotionEvent event) {
-        mViewDragHelper.processTouchEvent(event);
-        return true;
+    protected void onAttachedToWindow() {
+        super.onAttachedToWindow();
+        getContext().registerComponentCallbacks(mTrimMemoryCallbacks);
+        handleViews();
     }
 
-    /**
-     * Hide the the touch interceptor.
-     */
-    private void hideTouchInterceptor() {
-        if (findViewWithTag(TAG_OVERLAY) != null) {
-            findViewWithTag(TAG_OVERLAY).setVisibility(INVISIBLE);
+    @Override
+    protected void onDetachedFromWindow() {
+        super.onDetachedFromWindow();
+        getContext().unregisterComponentCallbacks(mTrimMemoryCallbacks);
+        if (mContentFrameTimer != null) {
+            mContentFrameTimer.stop();
+        }
+        if (mMenuPrewarmPosted) {
+            mMenuPrewarmPosted = false;
+            removeCallbacks(mMenuPrewarmRunnable);
+        }
+        releaseContentSnapshot();
+        recycleContentSnapshot();
+        thawContent();
+        if (mTouchResampler != null) {
+            mTouchResampler.reset();
+            mTouchResampler.recycleVelocityTracker();
         }
     }
 
     /**
-     * Show the the touch interceptor.
+     * Freezes the content once the drawer settled open. The content isn't measured or laid out
+     * and the registered animators are paused until the content thaws. Layout passes of the
+     * drawer itself still happen, they only move the content, unless the size of the drawer
+     * changed. A layout request of the content stops at the content, because it stays pending.
      */
-    private void showTouchInterceptor() {
-        if (findViewWithTag(TAG_OVERLAY) == null) {
-            addTouchInterceptor();
-        }
-
-        if (mContentView == null) {
-            mContentView = findViewWithTag(TAG_CONTENT);
-        }
+    private void freezeContent() {
+        if (mContentFrozen || !mContentFreezeEnabled || mContentView == null) return;
 
-        float offset = map(mContentView.getLeft(), 0, DuoDrawerLayout.this.getWidth() * mMarginFactor, 0, 1);
-        float scaleFactorContent = map(offset, 0, 1, mContentScaleClosed, mClickToCloseScale);
+        mContentFrozen = true;
 
-        View interceptor = findViewWithTag(TAG_OVERLAY);
-
-        if (interceptor != null) {
-            interceptor.setTranslationX(mContentView.getLeft());
-            interceptor.setTranslationY(mContentView.getTop());
-            interceptor.setScaleX(scaleFactorContent);
-            interceptor.setScaleY(scaleFactorContent);
-            interceptor.setVisibility(VISIBLE);
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.KITKAT) {
+            for (int i = 0; i < mFreezableAnimators.size(); i++) {
+                Animator animator = mFreezableAnimators.get(i);
+                if (animator.isStarted() && !animator.isPaused()) {
+                    animator.pause();
+                    mPausedAnimators.add(animator);
+                }
+            }
         }
-    }
 
-    /**
-     * Boolean to check if a touch is a click.
-     *
-     * @return Returns true if a touch is a click.
-     */
-    private boolean touchIsClick(float startX, float endX, float startY, float endY) {
-        float differenceX = Math.abs(startX - endX);
-        float differenceY = Math.abs(startY - endY);
-        return !(differenceX > MAX_CLICK_RANGE || differenceY > MAX_CLICK_RANGE);
+        if (mContentFreezeListener != null) {
+            mContentFreezeListener.onContentFrozen(mContentView);
+        }
     }
 
     /**
-     * Adds a touch interceptor to the layout when needed.
-     * The interceptor wil take care of touch events occurring
-     * on the content view when the drawer is open.
+     * Thaws the content, resumes the animators paused by {@link #freezeContent()}
+     * and lays out the content once if it requested a layout in the meantime.
      */
-    private void addTouchInterceptor() {
-        View touchInterceptor = mLayoutInflater.inflate(R.layout.duo_overlay, this, false);
-        touchInterceptor.setTag(TAG_OVERLAY);
-        touchInterceptor.setOnTouchListener(new OnTouchListener() {
-            float startX;
-            float startY;
+    private void thawContent() {
+        if (!mContentFrozen) return;
 
-            @Override
-            public boolean onTouch(View v, MotionEvent event) {
-                if (mLockMode != LOCK_MODE_LOCKED_OPEN) {
-                    switch (event.getAction()) {
-                        case MotionEvent.ACTION_DOWN:
-                            startX = event.getX();
-                            startY = event.getY();
-                            break;
-                        case MotionEvent.ACTION_UP:
-                            float endX = event.getX();
-                            float endY = event.getY();
+        mContentFrozen = false;
 
-                            if (touchIsClick(startX, endX, startY, endY)) {
-                                closeDrawer();
-                            }
-                            break;
-                        case MotionEvent.ACTION_MOVE:
-                            mViewDragCallback.mIsEdgeDrag = true;
-                            int pointerIndex = (event.getAction() & MotionEvent.ACTION_POINTER_INDEX_MASK) >> MotionEvent.ACTION_POINTER_INDEX_SHIFT;
-                            mViewDragHelper.captureChildView(mContentView, pointerIndex);
-                            break;
-                    }
-                    return true;
-                } else return true;
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.KITKAT) {
+            for (int i = 0; i < mPausedAnimators.size(); i++) {
+                mPausedAnimators.get(i).resume();
             }
-        });
-
+        }
+        mPausedAnimators.clear();
 
-        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.LOLLIPOP) {
-            touchInterceptor.setTranslationZ(MAX_ATTRIBUTE_MULTIPLIER);
+        if (mContentView.isLayoutRequested()) {
+            requestLayout();
         }
 
-        addView(touchInterceptor);
+        if (mContentFreezeListener != null) {
+            mContentFreezeListener.onContentThawed(mContentView);
+        }
     }
 
-    /**
-     * Disables/Enables a view and all of its child views.
-     * Leaves the toolbar enabled at all times.
-     *
-     * @param view    The view to be disabled/enabled
-     * @param enabled True or false, enabled/disabled
-     */
-    private void setViewAndChildrenEnabled(View view, boolean enabled) {
-        view.setEnabled(enabled);
-        if (view instanceof ViewGroup) {
-            ViewGroup viewGroup = (ViewGroup) view;
-            for (int i = 0; i < viewGroup.getChildCount(); i++) {
-                View child = viewGroup.getChildAt(i);
-                if (child instanceof Toolbar) {
-                    setViewAndChildrenEnabled(child, true);
-                } else {
-                    setViewAndChildrenEnabled(child, enabled);
-                }
+    @Override
+    protected boolean drawChild(Canvas canvas, View child, long drawingTime) {
+        if (child == mMenuView) {
+            if (child.getAlpha() == 0 || isMenuCovered()) {
+                return false;
+            }
+
+            if (isContentOpaqueRect()) {
+                int saveCount = canvas.save();
+                clipOutContent(canvas);
+                boolean more = super.drawChild(canvas, child, drawingTime);
+                canvas.restoreToCount(saveCount);
+                return more;
             }
         }
-    }
 
-    /**
-     * Kept for compatibility. {@see #isDrawerOpen()}.
-     *
-     * @param gravity Ignored
-     * @return true if the drawer view in in an open state
-     */
-    @SuppressWarnings("UnusedParameters")
-    public boolean isDrawerOpen(int gravity) {
-        return isDrawerOpen();
+        if (child != mContentView) {
+            return super.drawChild(canvas, child, drawingTime);
+        }
+
+        if (mContentSnapshotActive) {
+            drawContentSnapshot(canvas);
+            return false;
+        }
+
+        return super.drawChild(canvas, child, drawingTime);
     }
 
     /**
-     * Check if the drawer view is currently in an open state.
-     * To be considered "open" the drawer must have settled into its fully
-     * visible state.
-     *
-     * @return true if the drawer view is in an open state
+     * Draws the snapshot with the same position, transformation and alpha the live content would have.
      */
-    public boolean isDrawerOpen() {
-        return mDragOffset == 1;
+    private void drawContentSnapshot(Canvas canvas) {
+        mContentSnapshotPaint.setAlpha((int) (mContentView.getAlpha() * 255));
+
+        int saveCount = canvas.save();
+        canvas.translate(mContentView.getLeft(), mContentView.getTop());
+        canvas.concat(mContentView.getMatrix());
+        canvas.drawBitmap(mContentSnapshot, 0, 0, mContentSnapshotPaint);
+        canvas.restoreToCount(saveCount);
     }
 
     /**
-     * Kept for compatibility. {@see #openDrawer()}.
+     * Checks if the content should be drawn from a snapshot while the drawer is not closed.
      *
-     * @param gravity Ignored
+     * @return True if the snapshot mode asks for a snapshot.
      */
-    @SuppressWarnings("UnusedParameters")
-    public void openDrawer(int gravity) {
-        openDrawer();
+    private boolean shouldSnapshotContent() {
+        switch (mContentSnapshotMode) {
+            case CONTENT_SNAPSHOT_ALWAYS:
+                return true;
+            case CONTENT_SNAPSHOT_AUTO:
+                return mContentFrameTime > CONTENT_FRAME_TIME_THRESHOLD;
+            case CONTENT_SNAPSHOT_OFF:
+            default:
+                return false;
+        }
     }
 
     /**
-     * Open the drawer animated.
+     * Starts or stops measuring the frame time for {@link #CONTENT_SNAPSHOT_AUTO}.
+     * Frames are only timed while the drawer moves and the live content is drawn.
      */
-    public void openDrawer() {
-        int drawerWidth = (int) (getWidth() * mMarginFactor);
-        if (drawerWidth == 0) {
-            getViewTreeObserver().addOnPreDrawListener(new ViewTreeObserver.OnPreDrawListener() {
-                @Override
-                public boolean onPreDraw() {
-                    DuoDrawerLayout.this.getViewTreeObserver().removeOnPreDrawListener(this);
-                    if (mViewDragHelper.smoothSlideViewTo(mContentView, ((int) (getWidth() * mMarginFactor)), mContentView.getTop())) {
-                        ViewCompat.postInvalidateOnAnimation(DuoDrawerLayout.this);
-                    }
-                    return false;
-                }
-            });
+    private void updateContentFrameTimer() {
+        if (mContentFrameTimer == null) return;
+
+        if (mContentSnapshotMode == CONTENT_SNAPSHOT_AUTO && mDrawerState != STATE_IDLE && !mContentSnapshotActive) {
+            mContentFrameTimer.start();
         } else {
-            if (mViewDragHelper.smoothSlideViewTo(mContentView, drawerWidth, mContentView.getTop())) {
-                ViewCompat.postInvalidateOnAnimation(DuoDrawerLayout.this);
-            }
+            mContentFrameTimer.stop();
         }
     }
 
     /**
-     * Kept for compatibility. {@see #closeDrawer()}.
-     *
-     * @param gravity Ignored
+     * Takes the snapshot once the main thread is idle, so drawing the content into it doesn't
+     * hold up the frame the drawer starts to move in. The live content is drawn until then.
      */
-    @SuppressWarnings("UnusedParameters")
-    public void closeDrawer(int gravity) {
-        closeDrawer();
+    private void requestContentSnapshot() {
+        if (mContentSnapshotActive || mContentSnapshotPending) return;
+
+        mContentSnapshotPending = true;
+        Looper.myQueue().addIdleHandler(mContentSnapshotCapture);
     }
 
     /**
-     * Close the drawer animated.
+     * Draws the content into the snapshot once and draws the snapshot in its place from now on.
+     * The snapshot bitmap is reused while the drawer is open or moving, for as long as the size
+     * of the content doesn't change. A SurfaceView or TextureView in the content can't be drawn
+     * into the snapshot.
      */
-    public void closeDrawer() {
-        if (mContentView == null) {
-            mContentView = findViewWithTag(TAG_CONTENT);
-        }
+    private void captureContentSnapshot() {
+        if (mContentSnapshotActive || mContentView == null) return;
 
-        if (mContentView != null) {
-            if (mViewDragHelper.smoothSlideViewTo(mContentView, 0 - mContentView.getPaddingLeft(), mContentView.getTop())) {
-                ViewCompat.postInvalidateOnAnimation(DuoDrawerLayout.this);
+        int width = mContentView.getWidth();
+        int height = mContentView.getHeight();
+        if (width == 0 || height == 0) return;
+
+        if (mContentSnapshot == null || mContentSnapshot.getWidth() != width || mContentSnapshot.getHeight() != height) {
+            recycleContentSnapshot();
+            try {
+                mContentSnapshot = Bitmap.createBitmap(width, height, Bitmap.Config.ARGB_8888);
+            } catch (OutOfMemoryError e) {
+                return;
             }
+            mContentSnapshotCanvas = new Canvas(mContentSnapshot);
+        } else {
+            mContentSnapshot.eraseColor(0);
         }
-    }
 
-    /**
-     * Kept for compatibility. {@see #isDrawerVisible()}.
-     *
-     * @param gravity Ignored.
+        if (mContentSnapshotPaint == null) {
+            mContentSnapshotPaint = new Paint(Paint.FILTER_BITMAP_FLAG);
+        }
+
+        mContentView.draw(mContentSnapshotCanvas);
+        mContentSnapshotActive = true;
+        invalidate();
+    }
+
+    /**
+     * Draws the live content again and drops a snapshot that is waiting to be taken.
+     * The snapshot bitmap is kept until {@link #recycleContentSnapshot()}.
      */
-    @SuppressWarnings("UnusedParameters")
-    public boolean isDrawerVisible(int gravity) {
-        return isDrawerVisible();
+    private void releaseContentSnapshot() {
+        if (mContentSnapshotPending) {
+            mContentSnapshotPending = false;
+            Looper.myQueue().removeIdleHandler(mContentSnapshotCapture);
+        }
+        if (!mContentSnapshotActive) return;
+
+        mContentSnapshotActive = false;
+        invalidate();
     }
 
     /**
-     * Check if the drawer is visible on the screen.
-     *
-     * @return true if the drawer is visible.
+     * Frees the snapshot bitmap.
      */
-    public boolean isDrawerVisible() {
-        return mDragOffset > 0;
+    private void recycleContentSnapshot() {
+        if (mContentSnapshot == null) return;
+
+        mContentSnapshot.recycle();
+        mContentSnapshot = null;
+        mContentSnapshotCanvas = null;
+    }
+
+
+    @Override
+    public void onViewAdded(View child) {
+        super.onViewAdded(child);
+
+        Object tag = child.getTag();
+        if (TAG_CONTENT.equals(tag)) {
+            mContentView = child;
+        } else if (TAG_MENU.equals(tag)) {
+            mMenuView = child;
+        } else {
+            return;
+        }
+
+        mInputGatingResolved = false;
+        transformViews();
+        updateInputGating();
+        updateLayer(child);
+    }
+
+    @Override
+    public void onViewRemoved(View child) {
+        super.onViewRemoved(child);
+
+        if (child == mContentView) {
+            thawContent();
+            mContentView = null;
+        } else if (child == mMenuView) {
+            mMenuView = null;
+        } else {
+            return;
+        }
+
+        mInputGatingResolved = false;
+        updateInputGating();
     }
 
     /**
-     * Enable or disable interaction the drawer.
-     * <p>
-     * This allows the application to restrict the user's ability to open or close
-     * any drawer within this layout. DuloDrawerLayout will still respond to calls to
-     * {@link #openDrawer()}, {@link #closeDrawer()} and friends if a drawer is locked.
-     * <p>
-     * Locking drawers open or closed will implicitly open or close
-     * any drawers as appropriate.
-     *
-     * @param lockMode The new lock mode. One of {@link #LOCK_MODE_UNLOCKED},
-     *                 {@link #LOCK_MODE_LOCKED_CLOSED} or {@link #LOCK_MODE_LOCKED_OPEN}.
-     * @see #LOCK_MODE_UNLOCKED
-     * @see #LOCK_MODE_LOCKED_CLOSED
-     * @see #LOCK_MODE_LOCKED_OPEN
+     * The menu & content views are picked up by their tags when they are added.
+     * Once the drawer is attached, a missing one is inflated from the corresponding attribute,
+     * so measure and layout passes never add views.
+     * Unless the menu warm-up is eager, inflating the menu attribute is left for later.
      */
-    public void setDrawerLockMode(@LockMode int lockMode) {
-        mLockMode = lockMode;
-        switch (lockMode) {
-            case LOCK_MODE_LOCKED_CLOSED:
-                mViewDragHelper.cancel();
-                closeDrawer();
-                break;
-            case LOCK_MODE_LOCKED_OPEN:
-                mViewDragHelper.cancel();
-                openDrawer();
-                break;
-            case LOCK_MODE_UNLOCKED:
-                break;
+    private void handleViews() {
+        if (mMenuView == null && mMenuWarmUp == MENU_WARM_UP_EAGER && mMenuViewId != DEFAULT_ATTRIBUTE_VALUE) {
+            checkForMenuAttribute();
         }
+        handleContentView();
+        scheduleMenuPrewarm();
     }
 
     /**
-     * Returns the menu view.
-     *
-     * @return The current menu view.
+     * Inflates the content attribute if no content view was added with its tag.
+     * Done as soon as the drawer layout finished inflating, so the content can be looked up
+     * right after the layout of the activity is set.
      */
-    public View getMenuView() {
-        if (mMenuView == null) {
-            mMenuView = this.findViewWithTag(TAG_MENU);
+    private void handleContentView() {
+        if (mContentView == null && mContentViewId != DEFAULT_ATTRIBUTE_VALUE) {
+            checkForContentAttribute();
         }
-        return mMenuView;
     }
 
     /**
-     * Sets the menu view.
-     *
-     * @param menuView View that becomes the menu view.
+     * Checks that the menu & content views are there, or that the menu can still be inflated
+     * from its attribute. Views set in code have to be set before the first measure pass.
+     * If this fails it wil throw an IllegalStateException.
      */
-    public void setMenuView(View menuView) {
-        if (menuView.getParent() != null) {
-            throw new IllegalStateException("Your menu view already has a parent. Please make sure your menu view does not have a parent.");
+    private void checkViews() {
+        if (mMenuView == null && mMenuViewId == DEFAULT_ATTRIBUTE_VALUE) {
+            throw new IllegalStateException(MISSING_MENU_MESSAGE);
         }
 
-        mMenuView = this.findViewWithTag(TAG_MENU);
-        if (mMenuView != null) {
-            this.removeView(mMenuView);
+        if (mContentView == null) {
+            throw new IllegalStateException(MISSING_CONTENT_MESSAGE);
         }
-        mMenuView = menuView;
-        mMenuView.setTag(TAG_MENU);
-        addView(mMenuView);
-        invalidate();
-        requestLayout();
     }
 
     /**
-     * Returns the content view.
-     *
-     * @return The current content view.
+     * Schedules the menu to be prewarmed once the main thread is idle,
+     * if that is the menu warm-up and it hasn't been scheduled yet.
      */
-    public View getContentView() {
-        if (mContentView == null) {
-            mContentView = this.findViewWithTag(TAG_CONTENT);
+    private void scheduleMenuPrewarm() {
+        if (mMenuWarmUp == MENU_WARM_UP_IDLE_PREWARM && !mMenuPrewarmScheduled) {
+            mMenuPrewarmScheduled = true;
+            // Posted once attached, so it runs after the traversal that draws the first frame.
+            post(new Runnable() {
+                @Override
+                public void run() {
+                    Looper.myQueue().addIdleHandler(new MessageQueue.IdleHandler() {
+                        @Override
+                        public boolean queueIdle() {
+                            if (ViewCompat.isAttachedToWindow(DuoDrawerLayout.this)) {
+                                prewarmMenu();
+                            }
+                            return false;
+                        }
+                    });
+                }
+            });
         }
-        return mContentView;
     }
 
     /**
-     * Sets the content view.
-     *
-     * @param contentView View that becomes the content view.
+     * Hides the menu while the drawer is closed and idle if it can't be seen anyway,
+     * because it is transparent or covered by opaque content. A hidden menu is not
+     * traversed or drawn and also keeps touches the content does not consume from
+     * falling through to it. It is shown again as soon as the drawer starts to move.
      */
-    public void setContentView(View contentView) {
-        if (contentView.getParent() != null) {
-            throw new IllegalStateException("Your content view already has a parent. Please make sure your content view does not have a parent.");
-        }
+    private void updateMenuVisibility() {
+        boolean closed = mDragOffset == 0 && mDrawerState == STATE_IDLE;
 
-        mContentView = this.findViewWithTag(TAG_CONTENT);
-        if (mContentView != null) {
-            this.removeView(mContentView);
+        if (mMenuView != null) {
+            boolean menuHidden = closed && (mMenuView.getAlpha() == 0 || isMenuCovered());
+            int visibility = menuHidden ? INVISIBLE : VISIBLE;
+            if (mMenuView.getVisibility() != visibility) {
+                mMenuView.setVisibility(visibility);
+            }
         }
-        mContentView = contentView;
-        mContentView.setTag(TAG_CONTENT);
-        addView(mContentView);
-        invalidate();
-        requestLayout();
     }
 
     /**
-     * Set the scale of the content when the drawer is closed. 1.0f is the original size.
-     *
-     * @param contentScaleClosed Scale of the content if the drawer is closed.
+     * Clips the canvas to the area the content doesn't cover as it is currently drawn.
+     * The content bounds are rounded inwards, so no gap shows up at the edges.
      */
-    public void setContentScaleClosed(float contentScaleClosed) {
-        mContentScaleClosed = contentScaleClosed;
-        invalidate();
-        requestLayout();
+    @SuppressWarnings("deprecation")
+    private void clipOutContent(Canvas canvas) {
+        getDrawnRect(mContentView, mTmpRectF);
+        mTmpRect.set((int) Math.ceil(mTmpRectF.left), (int) Math.ceil(mTmpRectF.top),
+                (int) Math.floor(mTmpRectF.right), (int) Math.floor(mTmpRectF.bottom));
+
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.O) {
+            canvas.clipOutRect(mTmpRect);
+        } else {
+            canvas.clipRect(mTmpRect, Region.Op.DIFFERENCE);
+        }
     }
 
     /**
-     * Set the scale of the content when the drawer is open. 1.0f is the original size.
-     *
-     * @param contentScaleOpen Scale of the content when the drawer is open.
+     * Checks if the content is drawn on top of the menu as a fully opaque rectangle,
+     * so anything of the menu behind it can be left out. Translucent content,
+     * or content that is rotated or skewed by a transformer, doesn't qualify.
      */
-    public void setContentScaleOpen(float contentScaleOpen) {
-        mContentScaleOpen = contentScaleOpen;
-        invalidate();
-        requestLayout();
+    private boolean isContentOpaqueRect() {
+        if (mContentView == null || mMenuView == null) return false;
+        if (!mContentOpaque && !mContentView.isOpaque()) return false;
+
+        return mContentView.getVisibility() == VISIBLE && mContentView.getAlpha() == 1
+                && mContentView.getMatrix().rectStaysRect()
+                && indexOfChild(mContentView) > indexOfChild(mMenuView);
     }
 
     /**
-     * Set the scale of the menu when the drawer is closed. 1.0f is the original size.
-     *
-     * @param menuScaleClosed Scale of the menu when the drawer is closed.
+     * Checks if the menu is completely hidden behind opaque content as they are currently drawn.
      */
-    public void setMenuScaleClosed(float menuScaleClosed) {
-        mMenuScaleClosed = menuScaleClosed;
-        invalidate();
-        requestLayout();
+    private boolean isMenuCovered() {
+        if (!isContentOpaqueRect()) return false;
+
+        getDrawnRect(mContentView, mTmpRectF);
+        getDrawnRect(mMenuView, mTmpMenuRectF);
+        return mTmpRectF.contains(mTmpMenuRectF);
     }
 
     /**
-     * Set the scale of the menu when the drawer is open. 1.0f is the original size.
-     *
-     * @param menuScaleOpen Scale of the menu when the drawer is open.
+     * Updates which panel is gated from input for the current drawer state.
+     * The menu is gated unless the drawer is open, the content is gated while the drawer is
+     * not closed. Only the panel roots are touched, so the cost does not depend on the size
+     * of their hierarchies. Does nothing when the gating did not change.
      */
-    public void setMenuScaleOpen(float menuScaleOpen) {
-        mMenuScaleOpen = menuScaleOpen;
-        invalidate();
-        requestLayout();
+    private void updateInputGating() {
+        boolean menuGated = mInputGatingEnabled && !isDrawerOpen();
+        boolean contentGated = mInputGatingEnabled && mDragOffset > 0;
+
+        if (mInputGatingResolved && menuGated == mMenuGated && contentGated == mContentGated) {
+            return;
+        }
+
+        mMenuGated = menuGated;
+        mContentGated = contentGated;
+        mInputGatingResolved = mMenuView != null && mContentView != null;
+
+        if (mMenuView != null) {
+            ViewCompat.setImportantForAccessibility(mMenuView, menuGated
+                    ? ViewCompat.IMPORTANT_FOR_ACCESSIBILITY_NO_HIDE_DESCENDANTS
+                    : ViewCompat.IMPORTANT_FOR_ACCESSIBILITY_AUTO);
+        }
+
+        if (mContentView != null) {
+            ViewCompat.setImportantForAccessibility(mContentView, contentGated
+                    ? ViewCompat.IMPORTANT_FOR_ACCESSIBILITY_NO_HIDE_DESCENDANTS
+                    : ViewCompat.IMPORTANT_FOR_ACCESSIBILITY_AUTO);
+        }
     }
 
     /**
-     * Set the scale of the click to close surface when the drawer is open. 0.7f is the original scaling.
+     * Checks if a view is a panel that is currently gated from input.
      *
-     * @param clickToCloseScale Scale of the click to close surface when the drawer is open.
+     * @param view A direct child of this layout.
+     * @return True if input to the view should be blocked.
      */
-    public void setClickToCloseScale(float clickToCloseScale) {
-        mClickToCloseScale = clickToCloseScale;
-        invalidate();
-        requestLayout();
+    private boolean isGatedPanel(View view) {
+        return (view == mMenuView && mMenuGated) || (view == mContentView && mContentGated);
     }
 
     /**
-     * Set the alpha of the menu when the drawer is closed.
-     * 0.0f is transparent, 1.0f is completely visible.
-     *
-     * @param menuAlphaClosed Alpha of the menu when the drawer is closed.
+     * Checks if a touch down lands on a panel that is gated from input
+     * and should therefore be handled by this layout instead.
      */
-    public void setMenuAlphaClosed(float menuAlphaClosed) {
-        mMenuAlphaClosed = menuAlphaClosed;
-        invalidate();
-        requestLayout();
+    private boolean isTouchOnGatedPanel(MotionEvent ev) {
+        if (mContentView == null || isInPassThroughView(ev)) return false;
+
+        if (mMenuGated && mContentGated) return true;
+
+        boolean onContent = isPointOnContent(ev.getX(), ev.getY());
+        return (mMenuGated && !onContent) || (mContentGated && onContent);
     }
 
     /**
-     * Set the alpha of the menu when the drawer is open.
-     * 0.0f is transparent, 1.0f is completely visible.
-     *
-     * @param menuAlphaOpen Alpha of the menu when the drawer is open.
+     * Checks if a point lies on the content as it is currently drawn,
+     * taking its position, scale and translation into account.
      */
-    public void setMenuAlphaOpen(float menuAlphaOpen) {
-        mMenuAlphaOpen = menuAlphaOpen;
-        invalidate();
-        requestLayout();
+    private boolean isPointOnContent(float x, float y) {
+        getDrawnRect(mContentView, mTmpRectF);
+        return mTmpRectF.contains(x, y);
     }
 
     /**
-     * Set the amount of space of the content visible when the drawer is opened.
-     * 1.0f will move the drawer completely of the screen. The default value is 0.7f.
-     *
-     * @param marginFactor Amount of space of the content when drawer is open.
+     * Computes the bounds of a child as it is currently drawn,
+     * taking its position, scale and translation into account.
      */
-    public void setMarginFactor(float marginFactor) {
-        mMarginFactor = marginFactor;
-        invalidate();
-        requestLayout();
+    private static void getDrawnRect(View child, RectF rect) {
+        rect.set(0, 0, child.getWidth(), child.getHeight());
+        child.getMatrix().mapRect(rect);
+        rect.offset(child.getLeft(), child.getTop());
     }
 
     /**
-     * Set a listener to be notified of drawer events.
-     *
-     * @param drawerListener Listener to notify when drawer events occur
-     * @see DrawerListener
+     * Checks if a touch down lands on the pass through view.
      */
-    public void setDrawerListener(DrawerListener drawerListener) {
-        mDrawerListener = drawerListener;
+    private boolean isInPassThroughView(MotionEvent ev) {
+        if (mPassThroughView == null || !mPassThroughView.isShown()) return false;
+        if (!mPassThroughView.getGlobalVisibleRect(mTmpRect)) return false;
+
+        getLocationInWindow(mTmpLocation);
+        return mTmpRect.contains((int) ev.getX() + mTmpLocation[0], (int) ev.getY() + mTmpLocation[1]);
     }
 
-    private class ViewDragCallback extends ViewDragHelper.Callback {
-        boolean mIsEdgeDrag = false;
+    /**
+     * Asks the current {@link LayerPolicy} which layer type the content and menu
+     * should use for the current drawer state and applies it.
+     */
+    private void updateLayers() {
+        updateLayer(mContentView);
+        updateLayer(mMenuView);
+    }
 
-        @Override
-        public boolean tryCaptureView(View child, int pointerId) {
-            return (mLockMode == LOCK_MODE_UNLOCKED || mLockMode == LOCK_MODE_LOCKED_OPEN) && child == mContentView && mIsEdgeDrag;
-        }
+    /**
+     * Applies the layer type the {@link LayerPolicy} requests for the given view.
+     * Nothing happens when the view already uses that layer type. A hardware layer
+     * is built right away when the view is attached, so the first animation frame
+     * does not have to pay for it.
+     *
+     * @param view The content or menu view.
+     */
+    private void updateLayer(View view) {
+        if (view == null) return;
 
-        @Override
-        public int clampViewPositionHorizontal(View child, int left, int dx) {
-            if (left < 0) return 0;
-            int width = (int) (getWidth() * mMarginFactor);
-            if (left > width) return width;
-            return left;
-        }
+        int layerType = mLayerPolicy.getLayerType(view, mDrawerState, mDragOffset);
+        if (view.getLayerType() == layerType) return;
 
-        @Override
-        public int clampViewPositionVertical(View child, int top, int dy) {
-            return getTopInset();
+        view.setLayerType(layerType, null);
+        if (layerType == LAYER_TYPE_HARDWARE && ViewCompat.isAttachedToWindow(view)) {
+            view.buildLayer();
         }
+    }
 
-        @Override
-        public void onEdgeDragStarted(int edgeFlags, int pointerId) {
-            mIsEdgeDrag = true;
-
-            if (tryCaptureView(mContentView, pointerId) && edgeFlags == ViewDragHelper.EDGE_LEFT) {
-                mViewDragHelper.captureChildView(mContentView, pointerId);
-            }
-        }
+    /**
+     * Inflates the menu attribute if the menu hasn't been inflated yet.
+     * The menu gets the transformation and gating of the current drawer state right away,
+     * so it doesn't show up for a frame before the next layout pass.
+     */
+    private void ensureMenuView() {
+        if (mMenuView != null || mMenuViewId == DEFAULT_ATTRIBUTE_VALUE) return;
 
-        @Override
-        public void onViewCaptured(View capturedChild, int activePointerId) {
-            super.onViewCaptured(capturedChild, activePointerId);
-        }
+        checkForMenuAttribute();
+        transformViews();
+        updateInputGating();
+        updateMenuVisibility();
+    }
 
-        @Override
-        public void onEdgeTouched(int edgeFlags, int pointerId) {
-            super.onEdgeTouched(edgeFlags, pointerId);
-        }
+    /**
+     * Inflates the menu if needed, then measures, lays out and draws it once ahead of time,
+     * so none of that is left for the first frame the drawer opens.
+     */
+    private void prewarmMenu() {
+        ensureMenuView();
+        if (mMenuView == null || mMenuPrewarmed || getWidth() == 0 || getHeight() == 0) return;
 
-        @Override
-        public int getViewHorizontalDragRange(View child) {
-            return DuoDrawerLayout.this.getMeasuredWidth();
-        }
+        mMenuPrewarmed = true;
 
-        @Override
-        public void onViewReleased(View releasedChild, float xvel, float yvel) {
-            super.onViewReleased(releasedChild, xvel, yvel);
-            if (xvel > 0 || xvel == 0 && mDragOffset > 0.5f) {
-                openDrawer();
+        if (mMenuView.isLayoutRequested() || mMenuView.getWidth() == 0) {
+            if (mHasMeasureSpecs) {
+                layoutMenu(mWidthMeasureSpec, mHeightMeasureSpec);
             } else {
-                closeDrawer();
+                layoutMenu(MeasureSpec.makeMeasureSpec(getMeasuredWidth(), MeasureSpec.EXACTLY),
+                        MeasureSpec.makeMeasureSpec(getMeasuredHeight(), MeasureSpec.EXACTLY));
             }
+        }
 
-            mIsEdgeDrag = false;
+        // Building a layer records the display lists of the whole menu hierarchy,
+        // they are kept when the layer policy releases the layer again.
+        if (isHardwareAccelerated() && ViewCompat.isAttachedToWindow(mMenuView)
+                && mMenuView.getLayerType() == LAYER_TYPE_NONE) {
+            mMenuView.setLayerType(LAYER_TYPE_HARDWARE, null);
+            mMenuView.buildLayer();
+            updateLayer(mMenuView);
         }
+    }
 
-        @Override
-        public void onViewPositionChanged(View changedView, int left, int top, int dx, int dy) {
-            super.onViewPositionChanged(changedView, left, top, dx, dy);
+    /**
+     * Checks if it can inflate the menu view with its corresponding attribute.
+     * If this fails it wil throw an IllegalStateException.
+     */
+    private void checkForMenuAttribute() {
+        if (mMenuViewId == DEFAULT_ATTRIBUTE_VALUE) {
+            throw new IllegalStateException(MISSING_MENU_MESSAGE);
+        }
 
-            mDragOffset = map(left, 0, DuoDrawerLayout.this.getWidth() * mMarginFactor, 0, 1);
+        mMenuView = mLayoutInflater.inflate(mMenuViewId, this, false);
 
-            float scaleFactorContent = map(mDragOffset, 0, 1, mContentScaleClosed, mContentScaleOpen);
-            mContentView.setScaleX(scaleFactorContent);
-            mContentView.setScaleY(scaleFactorContent);
+        if (mMenuView != null) {
+            mMenuView.setTag(TAG_MENU);
+            addView(mMenuView, 0);
+        }
+    }
 
-            float scaleFactorMenu = map(mDragOffset, 0, 1, mMenuScaleClosed, mMenuScaleOpen);
-            mMenuView.setScaleX(scaleFactorMenu);
-            mMenuView.setScaleY(scaleFactorMenu);
+    /**
+     * Checks if it can inflate the content view with its corresponding attribute.
+     * If this fails it wil throw an IllegalStateException.
+     */
+    private void checkForContentAttribute() {
+        if (mContentViewId == DEFAULT_ATTRIBUTE_VALUE) {
+            throw new IllegalStateException(MISSING_CONTENT_MESSAGE);
+        }
 
-            float alphaValue = map(mDragOffset, 0, 1, mMenuAlphaClosed, mMenuAlphaOpen);
-            mMenuView.setAlpha(alphaValue);
+        mContentView = mLayoutInflater.inflate(mContentViewId, this, false);
 
-            if (mDrawerListener != null) {
-                mDrawerListener.onDrawerSlide(DuoDrawerLayout.this, mDragOffset);
-            }
+        if (mContentView != null) {
+            mContentView.setTag(TAG_CONTENT);
+            addView(mContentView);
+        }
+    }
+
+    @Override
+    protected Parcelable onSaveInstanceState() {
+        Bundle bundle = new Bundle();
+        bundle.putParcelable("superState", super.onSaveInstanceState());
+        bundle.putFloat("dragOffset", getRestingDragOffset());
+        bundle.putInt("lockMode", mLockMode);
+        return bundle;
+    }
+
+    /**
+     * Returns the drag offset the drawer comes to rest at. A drawer that is still moving
+     * rests at the closest end, a pending open or placement counts as done.
+     */
+    private float getRestingDragOffset() {
+        if (mPendingOpen) return 1;
+        if (mPropertySettler != null && mPropertySettler.isRunning()) return mPropertySettler.getTargetOffset();
+        if (mPendingDragOffset != NO_PENDING_DRAG_OFFSET) return mPendingDragOffset;
+        if (mDrawerState != STATE_IDLE) return Math.round(mDragOffset);
+        return mDragOffset;
+    }
+
+    @Override
+    protected void onRestoreInstanceState(Parcelable state) {
+        if (state instanceof Bundle) {
+            Bundle bundle = (Bundle) state;
+            state = bundle.getParcelable("superState");
+            //noinspection WrongConstant
+            mLockMode = bundle.getInt("lockMode", LOCK_MODE_UNLOCKED);
+            placeDrawer(bundle.getFloat("dragOffset", 0f));
+        }
+        super.onRestoreInstanceState(state);
+    }
+
+    @Override
+    public boolean onKeyDown(int keyCode, KeyEvent event) {
+        if (isDrawerOpen() && keyCode == KeyEvent.KEYCODE_BACK) {
+            closeDrawer();
+            return true;
+        } else {
+            return super.onKeyDown(keyCode, event);
+        }
+    }
+
+    @Override
+    public boolean dispatchKeyEvent(KeyEvent event) {
+        View focusedChild = getFocusedChild();
+        if (focusedChild != null && isGatedPanel(focusedChild)) {
+            return event.dispatch(this, getKeyDispatcherState(), this);
+        }
+        return super.dispatchKeyEvent(event);
+    }
+
+    @Override
+    public boolean onRequestSendAccessibilityEvent(View child, AccessibilityEvent event) {
+        return !isGatedPanel(child) && super.onRequestSendAccessibilityEvent(child, event);
+    }
+
+    @Override
+    public boolean onInterceptTouchEvent(MotionEvent ev) {
+        final int action = MotionEventCompat.getActionMasked(ev);
+
+        switch (action) {
+            case MotionEvent.ACTION_CANCEL:
+            case MotionEvent.ACTION_UP: {
+                mViewDragHelper.cancel();
+                return false;
+            }
+            case MotionEvent.ACTION_DOWN: {
+                mIsClickToCloseGesture = isTouchOnClickToClose(ev);
+                mIsClickToCloseCaptured = false;
+                if (mIsClickToCloseGesture) {
+                    mClickToCloseStartX = ev.getX();
+                    mClickToCloseStartY = ev.getY();
+                    return true;
+                }
+                if (isTouchOnGatedPanel(ev)) {
+                    return true;
+                }
+                break;
+            }
+        }
+
+        return mViewDragHelper.shouldInterceptTouchEvent(ev);
+    }
+
+    @Override
+    public boolean onTouchEvent(MotionEvent event) {
+        if (mIsClickToCloseGesture) {
+            handleClickToClose(event);
+        }
+
+        if (mTouchResampler == null) {
+            mViewDragHelper.processTouchEvent(event);
+        } else if (!mTouchResampler.track(event)) {
+            mTouchResampler.flush();
+            mViewDragHelper.processTouchEvent(event);
+        }
+        return true;
+    }
+
+    /**
+     * Handles a gesture that started on the content while the drawer is open.
+     * Dragging captures the content once so the drawer can be dragged closed,
+     * a click closes the drawer.
+     */
+    private void handleClickToClose(MotionEvent event) {
+        if (mLockMode == LOCK_MODE_LOCKED_OPEN) return;
+
+        switch (MotionEventCompat.getActionMasked(event)) {
+            case MotionEvent.ACTION_MOVE:
+                if (!mIsClickToCloseCaptured && isDrag(event.getX(), event.getY())) {
+                    mIsClickToCloseCaptured = true;
+                    mViewDragCallback.mIsEdgeDrag = true;
+                    mViewDragHelper.captureChildView(mContentView, event.getPointerId(0));
+                }
+                break;
+            case MotionEvent.ACTION_UP:
+                if (!mIsClickToCloseCaptured) {
+                    closeDrawer();
+                }
+                mIsClickToCloseGesture = false;
+                break;
+            case MotionEvent.ACTION_CANCEL:
+                mIsClickToCloseGesture = false;
+                break;
+        }
+    }
+
+    /**
+     * Boolean to check if a touch moved far enough from where it started to be a drag.
+     *
+     * @return Returns true if a touch is a drag.
+     */
+    private boolean isDrag(float x, float y) {
+        float differenceX = Math.abs(x - mClickToCloseStartX);
+        float differenceY = Math.abs(y - mClickToCloseStartY);
+        int touchSlop = mViewDragHelper.getTouchSlop();
+        return differenceX > touchSlop || differenceY > touchSlop;
+    }
+
+    /**
+     * Checks if a touch down lands on the click to close surface.
+     * The surface covers the content as it is drawn while the drawer is not closed,
+     * with the click to close scale in place of the scale of the content.
+     */
+    private boolean isTouchOnClickToClose(MotionEvent ev) {
+        if (mDragOffset == 0 || mContentView == null || isInPassThroughView(ev)) return false;
+
+        float scale = mContentScaleClosed + (mClickToCloseScale - mContentScaleClosed) * mDragOffset;
+        getDrawnRect(mContentView, mTmpRectF);
+        if (mContentView.getScaleX() != 0 && mContentView.getScaleY() != 0) {
+            float halfWidth = mTmpRectF.width() * scale / mContentView.getScaleX() / 2;
+            float halfHeight = mTmpRectF.height() * scale / mContentView.getScaleY() / 2;
+            float centerX = mTmpRectF.centerX();
+            float centerY = mTmpRectF.centerY();
+            mTmpRectF.set(centerX - halfWidth, centerY - halfHeight, centerX + halfWidth, centerY + halfHeight);
+        }
+        return mTmpRectF.contains(ev.getX(), ev.getY());
+    }
+
+    /**
+     * Kept for compatibility. {@see #isDrawerOpen()}.
+     *
+     * @param gravity Ignored
+     * @return true if the drawer view in in an open state
+     */
+    @SuppressWarnings("UnusedParameters")
+    public boolean isDrawerOpen(int gravity) {
+        return isDrawerOpen();
+    }
+
+    /**
+     * Check if the drawer view is currently in an open state.
+     * To be considered "open" the drawer must have settled into its fully
+     * visible state.
+     *
+     * @return true if the drawer view is in an open state
+     */
+    public boolean isDrawerOpen() {
+        return mDragOffset == 1;
+    }
+
+    /**
+     * Kept for compatibility. {@see #openDrawer()}.
+     *
+     * @param gravity Ignored
+     */
+    @SuppressWarnings("UnusedParameters")
+    public void openDrawer(int gravity) {
+        openDrawer();
+    }
+
+    /**
+     * Open the drawer animated. When the drawer hasn't been laid out yet,
+     * the animation starts in the first layout pass.
+     */
+    public void openDrawer() {
+        ensureMenuView();
+
+        if (mOpenWidth == 0 || mContentView == null) {
+            mPendingOpen = true;
+        } else {
+            settleContentTo(mOpenWidth);
+        }
+    }
+
+    /**
+     * Kept for compatibility. {@see #closeDrawer()}.
+     *
+     * @param gravity Ignored
+     */
+    @SuppressWarnings("UnusedParameters")
+    public void closeDrawer(int gravity) {
+        closeDrawer();
+    }
+
+    /**
+     * Close the drawer animated.
+     */
+    public void closeDrawer() {
+        mPendingOpen = false;
+
+        if (mOpenWidth == 0 || mContentView == null) {
+            mPendingDragOffset = NO_PENDING_DRAG_OFFSET;
+        } else {
+            settleContentTo(0);
+        }
+    }
+
+    /**
+     * Open or close the drawer.
+     * Without animation the content and menu are placed at their final position right away,
+     * or in the first layout pass when the drawer hasn't been laid out yet. Either way the
+     * transformation is applied and the listeners are notified once, no frame is skipped.
+     *
+     * @param open    True to open the drawer, false to close it.
+     * @param animate True to animate the drawer like {@link #openDrawer()} and {@link #closeDrawer()}.
+     */
+    public void setDrawerOpen(boolean open, boolean animate) {
+        if (animate) {
+            if (open) {
+                openDrawer();
+            } else {
+                closeDrawer();
+            }
+        } else {
+            placeDrawer(open ? 1 : 0);
+        }
+    }
+
+    /**
+     * Places the drawer at a drag offset without animating, cancelling any running animation.
+     * Before the first layout pass the offset is kept and applied in {@link #onLayout(boolean, int, int, int, int)}.
+     *
+     * @param dragOffset The drag offset to place the drawer at, 0 is closed and 1 is open.
+     */
+    private void placeDrawer(float dragOffset) {
+        dragOffset = Math.max(0, Math.min(1, dragOffset));
+        mPendingOpen = false;
+
+        if (dragOffset > 0) {
+            ensureMenuView();
+        }
+
+        if (mOpenWidth == 0 || mContentView == null) {
+            mPendingDragOffset = dragOffset;
+            return;
+        }
+
+        mSpringSettler.stop();
+        mOffsetAnimator.cancel();
+        stopPropertySettler();
+        if (mViewDragHelper.getViewDragState() != ViewDragHelper.STATE_IDLE) {
+            mViewDragHelper.abort();
+        }
+
+        if (dragOffset > 0) {
+            layoutDeferredMenu();
+        }
+
+        int left = Math.round(mOpenWidth * dragOffset);
+        ViewCompat.offsetLeftAndRight(mContentView, left - mContentView.getLeft());
+        applyDragOffset(dragOffset);
+
+        updateDrawerState(STATE_IDLE);
+        updateInputGating();
+        updateMenuVisibility();
+        updateLayers();
+    }
+
+    /**
+     * Kept for compatibility. {@see #isDrawerVisible()}.
+     *
+     * @param gravity Ignored.
+     */
+    @SuppressWarnings("UnusedParameters")
+    public boolean isDrawerVisible(int gravity) {
+        return isDrawerVisible();
+    }
+
+    /**
+     * Check if the drawer is visible on the screen.
+     *
+     * @return true if the drawer is visible.
+     */
+    public boolean isDrawerVisible() {
+        return mDragOffset > 0 || (mPropertySettler != null && mPropertySettler.isRunning());
+    }
+
+    /**
+     * Enable or disable interaction the drawer.
+     * <p>
+     * This allows the application to restrict the user's ability to open or close
+     * any drawer within this layout. DuloDrawerLayout will still respond to calls to
+     * {@link #openDrawer()}, {@link #closeDrawer()} and friends if a drawer is locked.
+     * <p>
+     * Locking drawers open or closed will implicitly open or close
+     * any drawers as appropriate.
+     *
+     * @param lockMode The new lock mode. One of {@link #LOCK_MODE_UNLOCKED},
+     *                 {@link #LOCK_MODE_LOCKED_CLOSED} or {@link #LOCK_MODE_LOCKED_OPEN}.
+     * @see #LOCK_MODE_UNLOCKED
+     * @see #LOCK_MODE_LOCKED_CLOSED
+     * @see #LOCK_MODE_LOCKED_OPEN
+     */
+    public void setDrawerLockMode(@LockMode int lockMode) {
+        mLockMode = lockMode;
+        switch (lockMode) {
+            case LOCK_MODE_LOCKED_CLOSED:
+                mViewDragHelper.cancel();
+                closeDrawer();
+                break;
+            case LOCK_MODE_LOCKED_OPEN:
+                mViewDragHelper.cancel();
+                openDrawer();
+                break;
+            case LOCK_MODE_UNLOCKED:
+                break;
+        }
+    }
+
+    /**
+     * Returns the menu view.
+     *
+     * @return The current menu view.
+     */
+    public View getMenuView() {
+        return mMenuView;
+    }
+
+    /**
+     * Sets the menu view.
+     *
+     * @param menuView View that becomes the menu view.
+     */
+    public void setMenuView(View menuView) {
+        if (menuView.getParent() != null) {
+            throw new IllegalStateException("Your menu view already has a parent. Please make sure your menu view does not have a parent.");
+        }
+
+        if (mMenuView != null) {
+            this.removeView(mMenuView);
+        }
+        menuView.setTag(TAG_MENU);
+        addView(menuView, 0);
+        invalidate();
+        requestLayout();
+    }
+
+    /**
+     * Returns the content view.
+     *
+     * @return The current content view.
+     */
+    public View getContentView() {
+        return mContentView;
+    }
+
+    /**
+     * Sets the content view.
+     *
+     * @param contentView View that becomes the content view.
+     */
+    public void setContentView(View contentView) {
+        if (contentView.getParent() != null) {
+            throw new IllegalStateException("Your content view already has a parent. Please make sure your content view does not have a parent.");
+        }
+
+        if (mContentView != null) {
+            this.removeView(mContentView);
+        }
+        contentView.setTag(TAG_CONTENT);
+        addView(contentView);
+        invalidate();
+        requestLayout();
+    }
+
+    /**
+     * Set the scale of the content when the drawer is closed. 1.0f is the original size.
+     *
+     * @param contentScaleClosed Scale of the content if the drawer is closed.
+     */
+    public void setContentScaleClosed(float contentScaleClosed) {
+        edit().setContentScaleClosed(contentScaleClosed).apply();
+    }
+
+    /**
+     * Set the scale of the content when the drawer is open. 1.0f is the original size.
+     *
+     * @param contentScaleOpen Scale of the content when the drawer is open.
+     */
+    public void setContentScaleOpen(float contentScaleOpen) {
+        edit().setContentScaleOpen(contentScaleOpen).apply();
+    }
+
+    /**
+     * Set the scale of the menu when the drawer is closed. 1.0f is the original size.
+     *
+     * @param menuScaleClosed Scale of the menu when the drawer is closed.
+     */
+    public void setMenuScaleClosed(float menuScaleClosed) {
+        edit().setMenuScaleClosed(menuScaleClosed).apply();
+    }
+
+    /**
+     * Set the scale of the menu when the drawer is open. 1.0f is the original size.
+     *
+     * @param menuScaleOpen Scale of the menu when the drawer is open.
+     */
+    public void setMenuScaleOpen(float menuScaleOpen) {
+        edit().setMenuScaleOpen(menuScaleOpen).apply();
+    }
+
+    /**
+     * Set the scale of the click to close surface when the drawer is open. 0.7f is the original scaling.
+     *
+     * @param clickToCloseScale Scale of the click to close surface when the drawer is open.
+     */
+    public void setClickToCloseScale(float clickToCloseScale) {
+        edit().setClickToCloseScale(clickToCloseScale).apply();
+    }
+
+    /**
+     * Set the alpha of the menu when the drawer is closed.
+     * 0.0f is transparent, 1.0f is completely visible.
+     *
+     * @param menuAlphaClosed Alpha of the menu when the drawer is closed.
+     */
+    public void setMenuAlphaClosed(float menuAlphaClosed) {
+        edit().setMenuAlphaClosed(menuAlphaClosed).apply();
+    }
+
+    /**
+     * Set the alpha of the menu when the drawer is open.
+     * 0.0f is transparent, 1.0f is completely visible.
+     *
+     * @param menuAlphaOpen Alpha of the menu when the drawer is open.
+     */
+    public void setMenuAlphaOpen(float menuAlphaOpen) {
+        edit().setMenuAlphaOpen(menuAlphaOpen).apply();
+    }
+
+    /**
+     * Set the amount of space of the content visible when the drawer is opened.
+     * 1.0f will move the drawer completely of the screen. The default value is 0.7f.
+     *
+     * @param marginFactor Amount of space of the content when drawer is open.
+     */
+    public void setMarginFactor(float marginFactor) {
+        edit().setMarginFactor(marginFactor).apply();
+    }
+
+    /**
+     * Start changing several effects at once. The changes are validated when they are set and
+     * take effect together on {@link Editor#apply()}, which reapplies the transformation at the
+     * current drag offset once. A layout pass is only requested when the margin factor changes
+     * the width the drawer opens to.
+     * <pre>
+     * drawerLayout.edit()
+     *         .setContentScaleOpen(0.8f)
+     *         .setMenuAlphaClosed(0.2f)
+     *         .apply();
+     * </pre>
+     *
+     * @return An editor holding the current values.
+     */
+    public Editor edit() {
+        return new Editor();
+    }
+
+    /**
+     * Animate the drawer to a drag offset, for example 0.15f to let the drawer peek.
+     * {@see #animateToOffset(float, long, Interpolator, DrawerAnimationListener)}.
+     *
+     * @param offset The drag offset to animate to, 0 is closed and 1 is open.
+     */
+    public void animateToOffset(float offset) {
+        animateToOffset(offset, ANIMATION_DURATION, null, null);
+    }
+
+    /**
+     * Animate the drawer to a drag offset, for example 0.15f to let the drawer peek
+     * or 0.5f to preview the menu. The animation starts on the next animation frame,
+     * or after the first layout pass when the drawer hasn't been laid out yet.
+     * When this is called several times within one frame only the last call is animated.
+     * It can be cancelled with {@link #cancelDrawerAnimation()} and is cancelled as well
+     * when the user drags the drawer.
+     *
+     * @param offset       The drag offset to animate to, 0 is closed and 1 is open.
+     * @param duration     Duration of the animation in milliseconds.
+     * @param interpolator Curve of the animation. Set to "null" for a linear animation.
+     * @param listener     Listener to notify when the animation ends. Might be null.
+     */
+    public void animateToOffset(float offset, long duration, Interpolator interpolator, DrawerAnimationListener listener) {
+        if (offset < 0 || offset > 1) {
+            throw new IllegalArgumentException("The offset must be between 0 and 1.");
+        }
+        if (duration < 0) {
+            throw new IllegalArgumentException("The duration can't be negative.");
+        }
+
+        if (offset > 0) {
+            ensureMenuView();
+        }
+        mOffsetAnimator.animateTo(offset, duration, interpolator, listener);
+    }
+
+    /**
+     * Cancels a running drawer animation and leaves the drawer where it currently is.
+     * Both animations started with {@link #animateToOffset(float)} and the settle after
+     * {@link #openDrawer()}, {@link #closeDrawer()} or a fling are cancelled.
+     */
+    public void cancelDrawerAnimation() {
+        boolean wasSettling = isAnimating();
+        mSpringSettler.stop();
+        mOffsetAnimator.cancel();
+        stopPropertySettler();
+
+        if (wasSettling || mDrawerState == STATE_SETTLING) {
+            updateDrawerState(STATE_IDLE);
+        }
+    }
+
+    /**
+     * Set the spring the drawer uses to settle open or closed.
+     * The settle starts with the velocity the drawer was released with and can be
+     * interrupted at any moment. A damping ratio of 1 is critically damped, lower
+     * values let the drawer arrive faster and higher values slow it down. The drawer
+     * never moves past open or closed, so it stops there instead of bouncing.
+     *
+     * @param stiffness    Stiffness of the spring. The default value is 1500.
+     * @param dampingRatio Damping ratio of the spring. The default value is 1.0.
+     */
+    public void setSettleSpring(float stiffness, float dampingRatio) {
+        if (stiffness <= 0) {
+            throw new IllegalArgumentException("The stiffness of the settle spring must be greater than 0.");
+        }
+        if (dampingRatio < 0) {
+            throw new IllegalArgumentException("The damping ratio of the settle spring can't be negative.");
+        }
+
+        mSettleStiffness = stiffness;
+        mSettleDampingRatio = dampingRatio;
+    }
+
+    /**
+     * Checks if a programmatic open or close animates view properties only.
+     *
+     * @return True if the property settle is enabled.
+     */
+    public boolean isPropertySettleEnabled() {
+        return mPropertySettleEnabled;
+    }
+
+    /**
+     * Let {@link #openDrawer()} and {@link #closeDrawer()} animate the translation, scale and
+     * alpha of the views only, so the animation keeps running while the main thread is busy.
+     * The drawer listeners are then only notified when the animation starts and ends, and the
+     * drag offset keeps its value until the end, so a {@link nl.psdcompany.duonavigationdrawer.widgets.DuoDrawerToggle} jumps instead of
+     * following the animation. Only used with the default {@link ScaleDrawerTransformer} on API 19
+     * and higher, otherwise the settle spring is used. Disabled by default.
+     *
+     * @param propertySettleEnabled True to animate a programmatic open or close with view properties.
+     */
+    public void setPropertySettleEnabled(boolean propertySettleEnabled) {
+        mPropertySettleEnabled = propertySettleEnabled;
+    }
+
+    /**
+     * Check if input to the inactive panel is blocked.
+     *
+     * @return True if input gating is enabled.
+     */
+    public boolean isInputGatingEnabled() {
+        return mInputGatingEnabled;
+    }
+
+    /**
+     * Block touch, key and accessibility events to the inactive panel.
+     * The menu is inactive unless the drawer is open, the content is inactive while the
+     * drawer is not closed. Gating happens while dispatching the events, the enabled state
+     * of the views inside the panels is left alone. Enabled by default.
+     *
+     * @param inputGatingEnabled Either true or false. Enabling/disabling input gating.
+     */
+    public void setInputGatingEnabled(boolean inputGatingEnabled) {
+        mInputGatingEnabled = inputGatingEnabled;
+        updateInputGating();
+    }
+
+    /**
+     * Returns the view that receives touches even when the panel it is in is inactive.
+     *
+     * @return The current pass through view or null.
+     */
+    public View getInputPassThroughView() {
+        return mPassThroughView;
+    }
+
+    /**
+     * Set a view that receives touches even when the panel it is in is inactive,
+     * for example a toolbar in the content. The area the view currently covers
+     * on screen is used as pass through region.
+     *
+     * @param passThroughView View to let touches through to. Set to "null" to remove it.
+     */
+    public void setInputPassThroughView(View passThroughView) {
+        mPassThroughView = passThroughView;
+    }
+
+    /**
+     * Check if touches are resampled to the frame time while the drawer is dragged.
+     *
+     * @return True if touch resampling is enabled.
+     */
+    public boolean isTouchResamplingEnabled() {
+        return mTouchResampler != null && mTouchResampler.mEnabled;
+    }
+
+    /**
+     * Resample touches to the frame time while the drawer is dragged. Instead of moving the
+     * content for every touch event, the touches of a frame are collected and the content is
+     * moved once per frame to where the finger is at that frame's time, interpolated from the
+     * touch history and extrapolated by the touch prediction. This keeps the drag smooth on
+     * displays that refresh faster than 60Hz. Requires API 16, enabled by default.
+     *
+     * @param touchResamplingEnabled Either true or false. Enabling/disabling touch resampling.
+     */
+    public void setTouchResamplingEnabled(boolean touchResamplingEnabled) {
+        if (mTouchResampler == null) return;
+
+        if (!touchResamplingEnabled) {
+            mTouchResampler.flush();
+        }
+        mTouchResampler.mEnabled = touchResamplingEnabled;
+    }
+
+    /**
+     * Returns how far ahead the finger is predicted while the drawer is dragged.
+     *
+     * @return The touch prediction in milliseconds.
+     */
+    public long getTouchPrediction() {
+        return mTouchResampler != null ? mTouchResampler.mPrediction : 0;
+    }
+
+    /**
+     * Set how far ahead the finger is predicted while the drawer is dragged.
+     * A longer prediction makes the content follow the finger closer,
+     * but overshoots when the finger changes direction. The default value is 4.
+     *
+     * @param touchPrediction The touch prediction in milliseconds, between 0 and 8.
+     */
+    public void setTouchPrediction(long touchPrediction) {
+        if (touchPrediction < 0 || touchPrediction > MAX_TOUCH_PREDICTION) {
+            throw new IllegalArgumentException("The touch prediction must be between 0 and " + MAX_TOUCH_PREDICTION + " milliseconds.");
+        }
+
+        if (mTouchResampler != null) {
+            mTouchResampler.mPrediction = touchPrediction;
+        }
+    }
+
+    /**
+     * Returns the average time between the newest touch of a frame and the time of that frame,
+     * measured while the drawer is dragged with touch resampling enabled. Use it together with
+     * {@link #setTouchPrediction(long)} to tune how closely the content follows the finger.
+     *
+     * @return The touch latency in milliseconds or 0 when nothing has been measured yet.
+     */
+    public float getTouchLatency() {
+        return mTouchResampler != null ? mTouchResampler.mLatency : 0;
+    }
+
+    /**
+     * Returns the transformer that is applied to the content and menu while the drawer moves.
+     *
+     * @return The current drawer transformer.
+     */
+    public DrawerTransformer getDrawerTransformer() {
+        return mDrawerTransformer;
+    }
+
+    /**
+     * Set the transformer that is applied to the content and menu while the drawer moves.
+     * By default a {@link ScaleDrawerTransformer} is used which is configured with the
+     * scale and alpha attributes of this layout. A {@link ScaleDrawerTransformer} that is set
+     * here takes over those values as well and follows the scale and alpha setters of this
+     * layout, so only its interpolator has to be set on it.
+     *
+     * @param drawerTransformer Transformer to apply. Set to "null" to restore the default.
+     */
+    public void setDrawerTransformer(DrawerTransformer drawerTransformer) {
+        mDrawerTransformer = drawerTransformer != null ? drawerTransformer : mScaleDrawerTransformer;
+        updateScaleDrawerTransformer();
+        dispatchTransformerSizeChanged();
+        transformViews();
+    }
+
+    /**
+     * Returns the policy that decides when the content and menu are drawn through a hardware layer.
+     *
+     * @return The current layer policy.
+     */
+    public LayerPolicy getLayerPolicy() {
+        return mLayerPolicy;
+    }
+
+    /**
+     * Set the policy that decides when the content and menu are drawn through a hardware layer.
+     * The policy is consulted whenever the drawer state changes, so with
+     * {@link #LAYER_POLICY_ANIMATION_ONLY} the layers are built when the drawer leaves
+     * {@link #STATE_IDLE} and released as soon as it returns to it.
+     *
+     * @param layerPolicy One of {@link #LAYER_POLICY_NONE}, {@link #LAYER_POLICY_ANIMATION_ONLY},
+     *                    {@link #LAYER_POLICY_ALWAYS} or a custom policy.
+     */
+    public void setLayerPolicy(LayerPolicy layerPolicy) {
+        if (layerPolicy == null) {
+            throw new IllegalArgumentException("The layer policy can't be null. Use LAYER_POLICY_NONE instead.");
+        }
+
+        mLayerPolicy = layerPolicy;
+        updateLayers();
+    }
+
+    /**
+     * Returns how often measuring the menu was skipped because the drawer was closed.
+     *
+     * @return Number of skipped menu measure passes.
+     */
+    public int getSkippedMenuMeasureCount() {
+        return mSkippedMenuMeasures;
+    }
+
+    /**
+     * Returns how often laying out the menu was skipped because the drawer was closed.
+     *
+     * @return Number of skipped menu layout passes.
+     */
+    public int getSkippedMenuLayoutCount() {
+        return mSkippedMenuLayouts;
+    }
+
+    /**
+     * Checks if the content is declared to be opaque.
+     *
+     * @return True if the content is declared to be opaque.
+     */
+    public boolean isContentOpaque() {
+        return mContentOpaque;
+    }
+
+    /**
+     * Declare that the content draws an opaque background over its whole area.
+     * The menu is then skipped while the content covers it.
+     * The window background is left alone, set {@code android:windowBackground} to
+     * {@code @null} in the theme of the activity if nothing else shows it.
+     * Without the declaration only content that reports {@link View#isOpaque()} hides the menu.
+     *
+     * @param contentOpaque True if the content is opaque.
+     */
+    public void setContentOpaque(boolean contentOpaque) {
+        mContentOpaque = contentOpaque;
+        updateMenuVisibility();
+        invalidate();
+    }
+
+    /**
+     * Returns when the menu layout set with the menu attribute is inflated.
+     *
+     * @return One of {@link #MENU_WARM_UP_LAZY}, {@link #MENU_WARM_UP_IDLE_PREWARM},
+     * {@link #MENU_WARM_UP_EAGER} or {@link #MENU_WARM_UP_EDGE_TOUCH}.
+     */
+    @MenuWarmUp
+    public int getMenuWarmUp() {
+        return mMenuWarmUp;
+    }
+
+    /**
+     * Set when the menu layout set with the menu attribute is inflated. Only has an effect
+     * as long as the menu hasn't been inflated yet. With {@link #MENU_WARM_UP_EAGER} the menu
+     * is inflated when the drawer is attached, which adds to the start up time of the screen,
+     * set after that it is inflated right away.
+     * The other policies move that work out of the first frame, {@link #getMenuView()}
+     * returns null until the menu is inflated.
+     *
+     * @param menuWarmUp One of {@link #MENU_WARM_UP_LAZY}, {@link #MENU_WARM_UP_IDLE_PREWARM},
+     *                   {@link #MENU_WARM_UP_EAGER} or {@link #MENU_WARM_UP_EDGE_TOUCH}.
+     */
+    public void setMenuWarmUp(@MenuWarmUp int menuWarmUp) {
+        mMenuWarmUp = menuWarmUp;
+        if (mMenuView != null) return;
+
+        if (ViewCompat.isAttachedToWindow(this)) {
+            handleViews();
+        }
+    }
+
+    /**
+     * Returns when the content is drawn from a snapshot instead of the live view tree.
+     *
+     * @return One of {@link #CONTENT_SNAPSHOT_OFF}, {@link #CONTENT_SNAPSHOT_ALWAYS} or {@link #CONTENT_SNAPSHOT_AUTO}.
+     */
+    @SnapshotMode
+    public int getContentSnapshotMode() {
+        return mContentSnapshotMode;
+    }
+
+    /**
+     * Set when the content is drawn from a snapshot instead of the live view tree.
+     * The snapshot is taken once the main thread is idle after the drawer started to open and is
+     * drawn in place of the content until the drawer is closed again, so the content doesn't redraw
+     * while it is scaled down. The snapshot bitmap is freed once the drawer is closed, and when
+     * the system runs low on memory.
+     * Anything that changes in the content in the meantime only shows once the drawer is closed.
+     * The snapshot is drawn in software, so a SurfaceView or TextureView in the content, like a map
+     * or a video, doesn't show up in it. Keep the snapshot off for such content.
+     * <p>
+     * With {@link #CONTENT_SNAPSHOT_AUTO} the time between frames is measured while the drawer moves
+     * and a snapshot is only taken once frames take longer than 24ms on average. From then on the
+     * snapshot is taken as soon as the drawer starts to open. Measuring frames requires API 16.
+     *
+     * @param contentSnapshotMode One of {@link #CONTENT_SNAPSHOT_OFF}, {@link #CONTENT_SNAPSHOT_ALWAYS}
+     *                            or {@link #CONTENT_SNAPSHOT_AUTO}.
+     */
+    public void setContentSnapshotMode(@SnapshotMode int contentSnapshotMode) {
+        mContentSnapshotMode = contentSnapshotMode;
+        mContentFrameTime = 0;
+        updateContentFrameTimer();
+
+        if (contentSnapshotMode == CONTENT_SNAPSHOT_OFF) {
+            releaseContentSnapshot();
+            recycleContentSnapshot();
+        } else if (mDragOffset > 0 && shouldSnapshotContent()) {
+            requestContentSnapshot();
+        }
+    }
+
+    /**
+     * Checks if the content is currently drawn from a snapshot.
+     *
+     * @return True if the snapshot is drawn in place of the content.
+     */
+    public boolean isContentSnapshotActive() {
+        return mContentSnapshotActive;
+    }
+
+    /**
+     * Checks if the content is frozen while the drawer is open.
+     *
+     * @return True if freezing the content is enabled.
+     */
+    public boolean isContentFreezeEnabled() {
+        return mContentFreezeEnabled;
+    }
+
+    /**
+     * Set if the content is frozen once the drawer settled open. While frozen, the content isn't
+     * measured or laid out and a layout it requested runs once when the drawer starts to close,
+     * and the animators added with {@link #addContentFreezeAnimator(Animator)} are paused.
+     * Pausing animators requires API 19, on older versions they keep running.
+     *
+     * @param contentFreezeEnabled True to freeze the content while the drawer is open.
+     */
+    public void setContentFreezeEnabled(boolean contentFreezeEnabled) {
+        mContentFreezeEnabled = contentFreezeEnabled;
+
+        if (!contentFreezeEnabled) {
+            thawContent();
+        } else if (mDrawerState == STATE_IDLE && mDragOffset == 1) {
+            freezeContent();
+        }
+    }
+
+    /**
+     * Checks if the content is currently frozen.
+     *
+     * @return True if the content is frozen.
+     */
+    public boolean isContentFrozen() {
+        return mContentFrozen;
+    }
+
+    /**
+     * Set a listener to be notified when the content freezes and thaws.
+     * Use it to stop work the drawer can't pause itself, like list prefetching or location updates.
+     *
+     * @param contentFreezeListener Listener to notify or null to remove it.
+     */
+    public void setContentFreezeListener(ContentFreezeListener contentFreezeListener) {
+        mContentFreezeListener = contentFreezeListener;
+    }
+
+    /**
+     * Add an animator of the content that is paused while the content is frozen.
+     *
+     * @param animator Animator to pause.
+     */
+    public void addContentFreezeAnimator(Animator animator) {
+        if (animator == null || mFreezableAnimators.contains(animator)) return;
+
+        mFreezableAnimators.add(animator);
+    }
+
+    /**
+     * Remove an animator added with {@link #addContentFreezeAnimator(Animator)}.
+     * If it is paused because the content is frozen it is resumed.
+     *
+     * @param animator Animator to remove.
+     */
+    public void removeContentFreezeAnimator(Animator animator) {
+        mFreezableAnimators.remove(animator);
+
+        if (mPausedAnimators.remove(animator) && Build.VERSION.SDK_INT >= Build.VERSION_CODES.KITKAT) {
+            animator.resume();
+        }
+    }
+
+    /**
+     * Set a listener to be notified of drawer events. Note that this method is deprecated
+     * and you should use {@link #addDrawerListener(DrawerListener)} to add a listener and
+     * {@link #removeDrawerListener(DrawerListener)} to remove a registered listener.
+     *
+     * @param drawerListener Listener to notify when drawer events occur
+     * @see DrawerListener
+     * @deprecated Use {@link #addDrawerListener(DrawerListener)}
+     */
+    @Deprecated
+    public void setDrawerListener(DrawerListener drawerListener) {
+        if (mDrawerListener != null) {
+            removeDrawerListener(mDrawerListener);
+        }
+        if (drawerListener != null) {
+            addDrawerListener(drawerListener);
+        }
+        mDrawerListener = drawerListener;
+    }
+
+    /**
+     * Adds the specified listener to the list of listeners that will be notified of drawer events.
+     * Listeners are stored in a copy-on-write array, so listeners may be added or removed
+     * from within a callback and notifying them does not allocate.
+     *
+     * @param drawerListener Listener to notify when drawer events occur.
+     * @see #removeDrawerListener(DrawerListener)
+     */
+    public void addDrawerListener(DrawerListener drawerListener) {
+        if (drawerListener == null) return;
+
+        for (DrawerListener listener : mDrawerListeners) {
+            if (listener == drawerListener) return;
+        }
+
+        DrawerListener[] listeners = new DrawerListener[mDrawerListeners.length + 1];
+        System.arraycopy(mDrawerListeners, 0, listeners, 0, mDrawerListeners.length);
+        listeners[mDrawerListeners.length] = drawerListener;
+        mDrawerListeners = listeners;
+    }
+
+    /**
+     * Removes the specified listener from the list of listeners that will be notified of drawer
+     * events.
+     *
+     * @param drawerListener Listener to remove from being notified of drawer events
+     * @see #addDrawerListener(DrawerListener)
+     */
+    public void removeDrawerListener(DrawerListener drawerListener) {
+        if (drawerListener == null) return;
+
+        for (int i = 0; i < mDrawerListeners.length; i++) {
+            if (mDrawerListeners[i] == drawerListener) {
+                DrawerListener[] listeners = mDrawerListeners.length == 1
+                        ? NO_DRAWER_LISTENERS
+                        : new DrawerListener[mDrawerListeners.length - 1];
+                System.arraycopy(mDrawerListeners, 0, listeners, 0, i);
+                System.arraycopy(mDrawerListeners, i + 1, listeners, i, mDrawerListeners.length - i - 1);
+                mDrawerListeners = listeners;
+                return;
+            }
+        }
+    }
+
+    /**
+     * Notifies all registered listeners of the current drag offset.
+     * Iterates over the array that was current when dispatching started,
+     * so listeners that are added or removed in a callback take effect next time.
+     */
+    private void dispatchOnDrawerSlide() {
+        DrawerListener[] listeners = mDrawerListeners;
+        for (DrawerListener listener : listeners) {
+            listener.onDrawerSlide(this, mDragOffset);
+        }
+    }
+
+    /**
+     * Notifies all registered listeners that the drawer settled open.
+     */
+    private void dispatchOnDrawerOpened() {
+        DrawerListener[] listeners = mDrawerListeners;
+        for (DrawerListener listener : listeners) {
+            listener.onDrawerOpened(this);
+        }
+    }
+
+    /**
+     * Notifies all registered listeners that the drawer settled closed.
+     */
+    private void dispatchOnDrawerClosed() {
+        DrawerListener[] listeners = mDrawerListeners;
+        for (DrawerListener listener : listeners) {
+            listener.onDrawerClosed(this);
+        }
+    }
+
+    /**
+     * Notifies all registered listeners of a new drawer state.
+     */
+    private void dispatchOnDrawerStateChanged(@State int state) {
+        DrawerListener[] listeners = mDrawerListeners;
+        for (DrawerListener listener : listeners) {
+            listener.onDrawerStateChanged(state);
+        }
+    }
+
+    private class ViewDragCallback extends ViewDragHelper.Callback {
+        boolean mIsEdgeDrag = false;
+
+        @Override
+        public boolean tryCaptureView(View child, int pointerId) {
+            return (mLockMode == LOCK_MODE_UNLOCKED || mLockMode == LOCK_MODE_LOCKED_OPEN) && child == mContentView && mIsEdgeDrag;
+        }
+
+        @Override
+        public int clampViewPositionHorizontal(View child, int left, int dx) {
+            if (left < 0) return 0;
+            if (left > mOpenWidth) return mOpenWidth;
+            return left;
+        }
+
+        @Override
+        public int clampViewPositionVertical(View child, int top, int dy) {
+            return getTopInset();
+        }
+
+        @Override
+        public void onEdgeDragStarted(int edgeFlags, int pointerId) {
+            mIsEdgeDrag = true;
+
+            if (tryCaptureView(mContentView, pointerId) && edgeFlags == ViewDragHelper.EDGE_LEFT) {
+                mViewDragHelper.captureChildView(mContentView, pointerId);
+            }
+        }
+
+        @Override
+        public void onViewCaptured(View capturedChild, int activePointerId) {
+            super.onViewCaptured(capturedChild, activePointerId);
+            mSpringSettler.stop();
+            mOffsetAnimator.cancel();
+            stopPropertySettler();
+        }
+
+        @Override
+        public void onEdgeTouched(int edgeFlags, int pointerId) {
+            super.onEdgeTouched(edgeFlags, pointerId);
+
+            if (mLockMode == LOCK_MODE_LOCKED_CLOSED) return;
+
+            if (mMenuWarmUp == MENU_WARM_UP_EDGE_TOUCH) {
+                // The drag is captured once the touch passes the touch slop, which usually takes
+                // a few frames. Posted so the touch down itself isn't held up by the warm-up,
+                // a drag that starts first inflates the menu on its own.
+                if (!mMenuPrewarmed && !mMenuPrewarmPosted) {
+                    mMenuPrewarmPosted = true;
+                    ViewCompat.postOnAnimation(DuoDrawerLayout.this, mMenuPrewarmRunnable);
+                }
+            } else {
+                ensureMenuView();
+            }
+        }
+
+        @Override
+        public int getViewHorizontalDragRange(View child) {
+            return DuoDrawerLayout.this.getMeasuredWidth();
+        }
+
+        @Override
+        public void onViewReleased(View releasedChild, float xvel, float yvel) {
+            super.onViewReleased(releasedChild, xvel, yvel);
+            if (mTouchResampler != null && mTouchResampler.isResampling()) {
+                xvel = mTouchResampler.getXVelocity();
+            }
+            if (xvel > 0 || xvel == 0 && mDragOffset > 0.5f) {
+                mSpringSettler.settleTo(mOpenWidth, xvel);
+            } else {
+                mSpringSettler.settleTo(0, xvel);
+            }
+
+            mIsEdgeDrag = false;
+        }
+
+        @Override
+        public void onViewPositionChanged(View changedView, int left, int top, int dx, int dy) {
+            super.onViewPositionChanged(changedView, left, top, dx, dy);
+            onContentPositionChanged(left);
+        }
+
+        @Override
+        public void onViewDragStateChanged(int state) {
+            super.onViewDragStateChanged(state);
+
+            // The drag helper goes idle when the content is released,
+            // while the spring is still settling it.
+            if (state == STATE_IDLE && isAnimating()) return;
+
+            updateDrawerState(state);
+        }
+
+        private int getTopInset() {
+            if (Build.VERSION.SDK_INT < Build.VERSION_CODES.LOLLIPOP) return 0;
+            if (!mContentView.getFitsSystemWindows()) return 0;
+            return mTopInset;
+        }
+    }
+
+    /**
+     * Updates the drag offset after the content moved and applies it.
+     *
+     * @param left The new left position of the content.
+     */
+    private void onContentPositionChanged(int left) {
+        applyDragOffset(mOpenWidth > 0 ? left / (float) mOpenWidth : 0);
+    }
+
+    /**
+     * Moves the content to a left position and applies the matching drag offset.
+     *
+     * @param left       The new left position of the content.
+     * @param dragOffset The drag offset to apply, 0 is closed and 1 is open.
+     */
+    private void moveContentTo(int left, float dragOffset) {
+        int dx = left - mContentView.getLeft();
+        if (dx != 0) {
+            ViewCompat.offsetLeftAndRight(mContentView, dx);
+        }
+        if (dx != 0 || dragOffset != mDragOffset) {
+            applyDragOffset(dragOffset);
+        }
+    }
+
+    /**
+     * Sets the drag offset, transforms the content and menu and notifies the listeners.
+     *
+     * @param dragOffset The new drag offset, 0 is closed and 1 is open.
+     */
+    private void applyDragOffset(float dragOffset) {
+        mDragOffset = dragOffset;
+        mDraggedXOffset = mContentView.getLeft();
+        transformViews();
+
+        if (!mContentSnapshotActive && dragOffset > 0 && shouldSnapshotContent()) {
+            requestContentSnapshot();
+        }
+
+        dispatchOnDrawerSlide();
+    }
+
+    /**
+     * Checks if the spring or the offset animator is moving the content.
+     *
+     * @return True if the drawer is animating towards a position.
+     */
+    private boolean isAnimating() {
+        return mSpringSettler.isRunning() || mOffsetAnimator.isRunning()
+                || (mPropertySettler != null && mPropertySettler.isRunning());
+    }
+
+    /**
+     * Settles the content at a left position after a programmatic open or close.
+     * With the property settle enabled this animates view properties only, otherwise
+     * the settle spring is used. A spring that is still settling is retargeted instead,
+     * so it keeps its velocity.
+     *
+     * @param left Left position the content settles at.
+     */
+    private void settleContentTo(int left) {
+        if (canPropertySettle() && !mSpringSettler.isRunning()) {
+            mPropertySettler.settleTo(left);
+        } else {
+            mSpringSettler.settleTo(left);
+        }
+    }
+
+    /**
+     * Checks if a programmatic settle can animate view properties only. That needs API 19
+     * and the default {@link ScaleDrawerTransformer}, which only touches the scale and alpha
+     * of the views. What any other transformer does can't be animated without running it
+     * every frame. A translation of the content that isn't from the settle itself is kept.
+     */
+    private boolean canPropertySettle() {
+        return mPropertySettleEnabled && mPropertySettler != null && mContentView != null
+                && mDrawerTransformer.getClass() == ScaleDrawerTransformer.class
+                && (mPropertySettler.isRunning() || mContentView.getTranslationX() == 0);
+    }
+
+    /**
+     * Stops a running property animation and keeps the content where it currently is.
+     */
+    private void stopPropertySettler() {
+        if (mPropertySettler != null) {
+            mPropertySettler.stop();
+        }
+    }
+
+    /**
+     * Handles a new drawer state, either from the drag helper or from the settle spring.
+     *
+     * @param state The new drawer state.
+     */
+    private void updateDrawerState(@State int state) {
+        if (mIsLandscape && mDragOffset >= .6f) {
+            mDragOffset = 1;
+        }
+
+        mDraggedXOffset = mContentView.getLeft();
+        mDraggedYOffset = mContentView.getTop();
+
+        if (state != STATE_IDLE && shouldSnapshotContent()) {
+            requestContentSnapshot();
+        } else if (state == STATE_IDLE && mDragOffset == 0) {
+            releaseContentSnapshot();
+            recycleContentSnapshot();
+        }
+
+        if (state == STATE_IDLE && mDragOffset == 1) {
+            freezeContent();
+        } else {
+            thawContent();
+        }
+
+        if (state == STATE_IDLE) {
+            if (mDragOffset == 0) {
+                dispatchOnDrawerClosed();
+            } else if (mDragOffset == 1) {
+                dispatchOnDrawerOpened();
+            }
+        }
+
+        if (state != mDrawerState) {
+            if (state != STATE_IDLE) {
+                layoutDeferredMenu();
+            }
+
+            mDrawerState = state;
+            updateContentFrameTimer();
+            updateMenuVisibility();
+            updateLayers();
+            updateInputGating();
+
+            dispatchOnDrawerStateChanged(state);
+        }
+    }
+
+    /**
+     * Settles the content open or closed with a damped spring.
+     * The spring is stepped with the time that passed since the previous frame,
+     * so it moves at the same speed regardless of the frame rate. It keeps its
+     * position and velocity when it is retargeted mid-flight.
+     */
+    private class SpringSettler implements Runnable {
+        /**
+         * Largest step the spring is integrated with, in seconds.
+         */
+        private static final float MAX_STEP = 0.004f;
+        /**
+         * Longest frame the spring catches up on, in milliseconds.
+         */
+        private static final long MAX_FRAME_TIME = 64;
+        private static final float REST_DISPLACEMENT = 0.5f;
+        private static final float REST_VELOCITY = 20f;
+
+        private boolean mRunning;
+        private float mPosition;
+        private float mVelocity;
+        private int mTarget;
+        private long mLastFrameTime;
+
+        boolean isRunning() {
+            return mRunning;
+        }
+
+        /**
+         * Settles the content at the target, keeping the current velocity if the spring is running.
+         */
+        void settleTo(int target) {
+            settleTo(target, mRunning ? mVelocity : 0);
+        }
+
+        /**
+         * Settles the content at the target, starting with the given velocity.
+         *
+         * @param target   Left position the content settles at.
+         * @param velocity Horizontal velocity in pixels per second.
+         */
+        void settleTo(int target, float velocity) {
+            if (!mRunning && mContentView.getLeft() == target) return;
+
+            mOffsetAnimator.cancel();
+            stopPropertySettler();
+
+            if (!mRunning) {
+                mPosition = mContentView.getLeft();
+                mLastFrameTime = AnimationUtils.currentAnimationTimeMillis();
+                mRunning = true;
+                ViewCompat.postOnAnimation(DuoDrawerLayout.this, this);
+            }
+            mTarget = target;
+            mVelocity = velocity;
+
+            if (mViewDragHelper.getViewDragState() != ViewDragHelper.STATE_IDLE) {
+                mViewDragHelper.abort();
+            }
+            updateDrawerState(STATE_SETTLING);
+        }
+
+        /**
+         * Stops the spring where it is.
+         */
+        void stop() {
+            if (!mRunning) return;
+
+            mRunning = false;
+            removeCallbacks(this);
         }
 
         @Override
-        public void onViewDragStateChanged(int state) {
-            super.onViewDragStateChanged(state);
+        public void run() {
+            if (!mRunning) return;
+
+            long frameTime = AnimationUtils.currentAnimationTimeMillis();
+            float remaining = Math.min(frameTime - mLastFrameTime, MAX_FRAME_TIME) / 1000f;
+            mLastFrameTime = frameTime;
+
+            float damping = 2 * mSettleDampingRatio * (float) Math.sqrt(mSettleStiffness);
+            while (remaining > 0) {
+                float step = Math.min(remaining, MAX_STEP);
+                float acceleration = -mSettleStiffness * (mPosition - mTarget) - damping * mVelocity;
+                mVelocity += acceleration * step;
+                mPosition += mVelocity * step;
+                remaining -= step;
+            }
 
-            if (getContext().getResources().getConfiguration().orientation == Configuration.ORIENTATION_LANDSCAPE
-                    && mDragOffset >= .6f) {
-                mDragOffset = 1;
+            // The content never moves past closed or open.
+            if (mPosition < 0 || mPosition > mOpenWidth) {
+                mPosition = Math.max(0, Math.min(mOpenWidth, mPosition));
+                mVelocity = 0;
             }
 
-            mDraggedXOffset = mContentView.getLeft();
-            mDraggedYOffset = mContentView.getTop();
+            boolean atRest = Math.abs(mPosition - mTarget) < REST_DISPLACEMENT
+                    && Math.abs(mVelocity) < REST_VELOCITY;
+            int left = atRest ? mTarget : Math.round(mPosition);
 
-            if (state == STATE_IDLE) {
-                if (mDragOffset == 0) {
-                    hideTouchInterceptor();
-                    setViewAndChildrenEnabled(mMenuView, false);
+            moveContentTo(left, mOpenWidth > 0 ? left / (float) mOpenWidth : 0);
 
-                    if (mDrawerListener != null) {
-                        mDrawerListener.onDrawerClosed(DuoDrawerLayout.this);
-                    }
-                } else if (mDragOffset == 1) {
-                    showTouchInterceptor();
-                    setViewAndChildrenEnabled(mMenuView, true);
+            if (atRest) {
+                mRunning = false;
+                updateDrawerState(STATE_IDLE);
+            } else {
+                ViewCompat.postOnAnimation(DuoDrawerLayout.this, this);
+            }
+        }
+    }
 
-                    if (mDrawerListener != null) {
-                        mDrawerListener.onDrawerOpened(DuoDrawerLayout.this);
-                    }
+    /**
+     * Feeds a drag to the {@link ViewDragHelper} once per frame instead of once per touch event.
+     * The touches of a frame, including their batched history, are kept in a small ring buffer.
+     * On the next frame the position of the finger is resampled at the frame time: interpolated
+     * between the two samples around it, or extrapolated from the newest two by at most the
+     * prediction. A single copy of a move of the gesture is then placed at that position and
+     * handed to the drag helper. Any other event first flushes the newest touch position.
+     * <p>
+     * The drag helper only sees one shifted move per frame, so its velocity would be off.
+     * Every touch of the gesture goes into a velocity tracker of its own instead, which gives
+     * the velocity the content is released with.
+     */
+    @TargetApi(Build.VERSION_CODES.JELLY_BEAN)
+    private class TouchResampler implements Choreographer.FrameCallback {
+        private static final int SAMPLES = 8;
+        // Samples are taken slightly in the past, so most frames can interpolate between two real touches.
+        private static final long RESAMPLE_LATENCY = 5;
+        private static final long MIN_SAMPLE_DELTA = 2;
+
+        private final long[] mTimes = new long[SAMPLES];
+        private final float[] mXs = new float[SAMPLES];
+        private final float[] mYs = new float[SAMPLES];
+        private int mNewest = -1;
+        private int mCount;
+
+        private MotionEvent mLatestEvent;
+        private boolean mPosted;
+        private VelocityTracker mVelocityTracker;
+        private long mDownTime = -1;
+        private boolean mResampling;
+        boolean mEnabled = true;
+        long mPrediction = TOUCH_PREDICTION;
+        float mLatency;
+
+        /**
+         * Tracks the velocity of the gesture and takes a move of the active drag
+         * to resample it on the next frame.
+         *
+         * @return False if the event has to be handed to the drag helper right away.
+         */
+        boolean track(MotionEvent event) {
+            if (event.getDownTime() != mDownTime) {
+                mDownTime = event.getDownTime();
+                mResampling = false;
+                if (mVelocityTracker != null) {
+                    mVelocityTracker.clear();
                 }
             }
+            if (mVelocityTracker == null) {
+                mVelocityTracker = VelocityTracker.obtain();
+            }
+            mVelocityTracker.addMovement(event);
+
+            if (!mEnabled || event.getActionMasked() != MotionEvent.ACTION_MOVE || event.getPointerCount() != 1
+                    || mViewDragHelper.getViewDragState() != ViewDragHelper.STATE_DRAGGING) {
+                return false;
+            }
+
+            for (int i = 0; i < event.getHistorySize(); i++) {
+                addSample(event.getHistoricalEventTime(i), event.getHistoricalX(i), event.getHistoricalY(i));
+            }
+            addSample(event.getEventTime(), event.getX(), event.getY());
+
+            if (mLatestEvent == null) {
+                mLatestEvent = MotionEvent.obtain(event);
+            }
+            mResampling = true;
+
+            if (!mPosted) {
+                mPosted = true;
+                Choreographer.getInstance().postFrameCallback(this);
+            }
+            return true;
+        }
+
+        /**
+         * Hands the latest touch event to the drag helper unchanged if it hasn't been
+         * handled in a frame yet, and forgets the collected touches.
+         */
+        void flush() {
+            if (mPosted && mLatestEvent != null) {
+                mLatestEvent.setLocation(mXs[mNewest], mYs[mNewest]);
+                mViewDragHelper.processTouchEvent(mLatestEvent);
+            }
+            reset();
+        }
+
+        void recycleVelocityTracker() {
+            if (mVelocityTracker != null) {
+                mVelocityTracker.recycle();
+                mVelocityTracker = null;
+            }
+            mDownTime = -1;
+            mResampling = false;
+        }
+
+        /**
+         * Checks if moves of the current gesture were resampled,
+         * so the drag helper doesn't know the real velocity.
+         */
+        boolean isResampling() {
+            return mResampling;
+        }
+
+        /**
+         * Returns the horizontal velocity of the current gesture in pixels per second,
+         * limited the same way the drag helper limits a fling.
+         */
+        float getXVelocity() {
+            if (mVelocityTracker == null) return 0;
+
+            int maxVelocity = ViewConfiguration.get(getContext()).getScaledMaximumFlingVelocity();
+            mVelocityTracker.computeCurrentVelocity(1000, maxVelocity);
+            float velocity = mVelocityTracker.getXVelocity();
+            return Math.abs(velocity) < mViewDragHelper.getMinVelocity() ? 0 : velocity;
+        }
+
+        /**
+         * Forgets the collected touches without handing anything to the drag helper.
+         */
+        void reset() {
+            if (mPosted) {
+                mPosted = false;
+                Choreographer.getInstance().removeFrameCallback(this);
+            }
+            if (mLatestEvent != null) {
+                mLatestEvent.recycle();
+                mLatestEvent = null;
+            }
+            mNewest = -1;
+            mCount = 0;
+        }
+
+        private void addSample(long time, float x, float y) {
+            if (mCount > 0 && time <= mTimes[mNewest]) return;
+
+            mNewest = (mNewest + 1) % SAMPLES;
+            mTimes[mNewest] = time;
+            mXs[mNewest] = x;
+            mYs[mNewest] = y;
+            mCount = Math.min(mCount + 1, SAMPLES);
+        }
+
+        @Override
+        public void doFrame(long frameTimeNanos) {
+            mPosted = false;
+            if (mLatestEvent == null || mCount == 0
+                    || mViewDragHelper.getViewDragState() != ViewDragHelper.STATE_DRAGGING) {
+                return;
+            }
+
+            long frameTime = frameTimeNanos / 1000000;
+            long newestTime = mTimes[mNewest];
+            long sampleTime = Math.min(frameTime - RESAMPLE_LATENCY + mPrediction, newestTime + mPrediction);
+
+            float x = mXs[mNewest];
+            float y = mYs[mNewest];
 
-            if (state != mDrawerState) {
-                mDrawerState = state;
+            if (mCount > 1) {
+                int index = mNewest;
+                int previous = (index + SAMPLES - 1) % SAMPLES;
+                // Walk back to the two samples around the sample time, or stay at the newest two.
+                for (int i = 1; i < mCount - 1 && mTimes[previous] > sampleTime; i++) {
+                    index = previous;
+                    previous = (index + SAMPLES - 1) % SAMPLES;
+                }
 
-                if (mDrawerListener != null) {
-                    mDrawerListener.onDrawerStateChanged(state);
+                x = mXs[index];
+                y = mYs[index];
+
+                long delta = mTimes[index] - mTimes[previous];
+                if (delta >= MIN_SAMPLE_DELTA && sampleTime > mTimes[previous]) {
+                    float fraction = (sampleTime - mTimes[previous]) / (float) delta;
+                    x = mXs[previous] + (mXs[index] - mXs[previous]) * fraction;
+                    y = mYs[previous] + (mYs[index] - mYs[previous]) * fraction;
+                } else if (sampleTime <= mTimes[previous]) {
+                    x = mXs[previous];
+                    y = mYs[previous];
                 }
             }
+
+            mLatestEvent.setLocation(x, y);
+            mViewDragHelper.processTouchEvent(mLatestEvent);
+
+            long latency = Math.max(0, frameTime - newestTime);
+            mLatency = mLatency == 0 ? latency : mLatency * 0.9f + latency * 0.1f;
         }
+    }
 
-        private int getTopInset() {
-            if (Build.VERSION.SDK_INT < Build.VERSION_CODES.LOLLIPOP) return 0;
-            if (!mContentView.getFitsSystemWindows()) return 0;
+    /**
+     * Measures the time between frames while the drawer moves, for {@link #CONTENT_SNAPSHOT_AUTO}.
+     * The average frame time is kept when the drawer stops, so once frames turned out to be slow
+     * the snapshot is taken as soon as the drawer starts to move again.
+     */
+    @TargetApi(Build.VERSION_CODES.JELLY_BEAN)
+    private class ContentFrameTimer implements Choreographer.FrameCallback {
+        private boolean mPosted;
+        private long mLastFrameTimeNanos;
+
+        void start() {
+            if (mPosted) return;
+
+            mPosted = true;
+            mLastFrameTimeNanos = 0;
+            Choreographer.getInstance().postFrameCallback(this);
+        }
+
+        void stop() {
+            if (!mPosted) return;
+
+            mPosted = false;
+            Choreographer.getInstance().removeFrameCallback(this);
+        }
+
+        @Override
+        public void doFrame(long frameTimeNanos) {
+            if (mLastFrameTimeNanos != 0) {
+                long frameTime = frameTimeNanos - mLastFrameTimeNanos;
+                mContentFrameTime = mContentFrameTime == 0 ? frameTime : (mContentFrameTime * 3 + frameTime) / 4;
+            }
+            mLastFrameTimeNanos = frameTimeNanos;
+
+            if (shouldSnapshotContent()) {
+                mPosted = false;
+                requestContentSnapshot();
+            } else {
+                Choreographer.getInstance().postFrameCallback(this);
+            }
+        }
+    }
+
+    /**
+     * Animates the content to a drag offset over a fixed duration.
+     * Requests are picked up on the next animation frame, so when the offset is requested
+     * several times within one frame only the last request is animated.
+     */
+    private class OffsetAnimator implements Runnable {
+        private boolean mPosted;
+        private boolean mHasRequest;
+        private float mRequestedOffset;
+        private long mRequestedDuration;
+        private Interpolator mRequestedInterpolator;
+        private DrawerAnimationListener mRequestedListener;
+
+        private boolean mRunning;
+        private int mStartLeft;
+        private float mStartOffset;
+        private float mTargetOffset;
+        private long mStartTime;
+        private long mDuration;
+        private Interpolator mInterpolator;
+        private DrawerAnimationListener mListener;
+
+        boolean isRunning() {
+            return mRunning || mHasRequest;
+        }
+
+        /**
+         * Requests an animation to the given offset, replacing any request made in the same frame.
+         */
+        void animateTo(float offset, long duration, Interpolator interpolator, DrawerAnimationListener listener) {
+            if (mHasRequest) {
+                notifyListener(mRequestedListener, true);
+            }
+
+            mHasRequest = true;
+            mRequestedOffset = offset;
+            mRequestedDuration = duration;
+            mRequestedInterpolator = interpolator;
+            mRequestedListener = listener;
+
+            if (!mPosted) {
+                mPosted = true;
+                ViewCompat.postOnAnimation(DuoDrawerLayout.this, this);
+            }
+        }
+
+        /**
+         * Cancels the requested and the running animation, leaving the content where it is.
+         */
+        void cancel() {
+            if (!isRunning()) return;
+
+            DrawerAnimationListener requestedListener = mRequestedListener;
+            DrawerAnimationListener listener = mListener;
+            boolean wasRunning = mRunning;
+
+            clearRequest();
+            mRunning = false;
+            mListener = null;
+            mPosted = false;
+            removeCallbacks(this);
+
+            notifyListener(requestedListener, true);
+            if (wasRunning) {
+                notifyListener(listener, true);
+            }
+        }
+
+        @Override
+        public void run() {
+            mPosted = false;
+
+            if (mHasRequest) {
+                // The content can't be positioned yet, the next layout pass starts the request.
+                if (mContentView == null || mOpenWidth == 0) return;
+                start();
+            }
+
+            if (!mRunning) return;
+
+            long elapsed = AnimationUtils.currentAnimationTimeMillis() - mStartTime;
+            float fraction = mDuration > 0 ? Math.min(1f, elapsed / (float) mDuration) : 1f;
+            float interpolated = mInterpolator != null ? mInterpolator.getInterpolation(fraction) : fraction;
+            float offset = mStartOffset + (mTargetOffset - mStartOffset) * interpolated;
+            int targetLeft = Math.round(mTargetOffset * mOpenWidth);
+            int left = fraction < 1 ? Math.round(mStartLeft + (targetLeft - mStartLeft) * interpolated) : targetLeft;
+
+            moveContentTo(left, fraction < 1 ? offset : mTargetOffset);
+
+            if (fraction < 1) {
+                mPosted = true;
+                ViewCompat.postOnAnimation(DuoDrawerLayout.this, this);
+            } else {
+                DrawerAnimationListener listener = mListener;
+                mRunning = false;
+                mListener = null;
+                updateDrawerState(STATE_IDLE);
+                notifyListener(listener, false);
+            }
+        }
+
+        /**
+         * Starts a request that was waiting for the drawer to be laid out on the next animation frame.
+         */
+        void startPendingRequest() {
+            if (mHasRequest && !mPosted) {
+                mPosted = true;
+                ViewCompat.postOnAnimation(DuoDrawerLayout.this, this);
+            }
+        }
+
+        /**
+         * Starts animating the last request from the current position.
+         */
+        private void start() {
+            if (mRunning) {
+                notifyListener(mListener, true);
+            }
+
+            mSpringSettler.stop();
+            stopPropertySettler();
+            if (mViewDragHelper.getViewDragState() != ViewDragHelper.STATE_IDLE) {
+                mViewDragHelper.abort();
+            }
+
+            mStartLeft = mContentView.getLeft();
+            mStartOffset = mDragOffset;
+            mTargetOffset = mRequestedOffset;
+            mDuration = mRequestedDuration;
+            mInterpolator = mRequestedInterpolator;
+            mListener = mRequestedListener;
+            mStartTime = AnimationUtils.currentAnimationTimeMillis();
+            mRunning = true;
+            clearRequest();
+
+            updateDrawerState(STATE_SETTLING);
+        }
+
+        private void clearRequest() {
+            mHasRequest = false;
+            mRequestedInterpolator = null;
+            mRequestedListener = null;
+        }
+
+        private void notifyListener(DrawerAnimationListener listener, boolean cancelled) {
+            if (listener != null) {
+                listener.onDrawerAnimationEnd(DuoDrawerLayout.this, cancelled);
+            }
+        }
+    }
+
+    /**
+     * Settles the content after a programmatic open or close by animating view properties only.
+     * The content is laid out at its target right away and its translation is animated back to 0.
+     * The {@link ScaleDrawerTransformer} is asked once for the scale and alpha of the content and
+     * menu at the target, and those are animated alongside the translation without an update
+     * listener, so no code of the drawer runs while the views move. The listeners are notified of the slide when the
+     * settle starts and when it ends, which is also when the transformer is applied again.
+     * None of this invalidates the drawer layout or requires a layout pass.
+     */
+    @TargetApi(Build.VERSION_CODES.KITKAT)
+    private class PropertySettler extends AnimatorListenerAdapter {
+        private static final int SCALE_X = 0;
+        private static final int SCALE_Y = 1;
+        private static final int ALPHA = 2;
+
+        private final Interpolator mInterpolator = new DecelerateInterpolator(2f);
+        private final float[] mContentStart = new float[3];
+        private final float[] mContentEnd = new float[3];
+        private final float[] mMenuStart = new float[3];
+        private final float[] mMenuEnd = new float[3];
+        private boolean mRunning;
+        private float mTargetOffset;
+
+        boolean isRunning() {
+            return mRunning;
+        }
+
+        float getTargetOffset() {
+            return mTargetOffset;
+        }
+
+        /**
+         * Animates the content from where it is currently drawn to the target.
+         *
+         * @param target Left position the content settles at.
+         */
+        void settleTo(int target) {
+            mSpringSettler.stop();
+            mOffsetAnimator.cancel();
+            stop();
+
+            int left = mContentView.getLeft();
+            if (left == target) {
+                // A settle that was stopped right at the target has nothing left to animate.
+                if (mDrawerState == STATE_SETTLING) {
+                    updateDrawerState(STATE_IDLE);
+                }
+                return;
+            }
+
+            if (mViewDragHelper.getViewDragState() != ViewDragHelper.STATE_IDLE) {
+                mViewDragHelper.abort();
+            }
+
+            float distance = Math.min(1f, Math.abs(target - left) / (float) Math.max(1, mOpenWidth));
+            long duration = (long) (ANIMATION_DURATION * distance);
+            mTargetOffset = mOpenWidth > 0 ? target / (float) mOpenWidth : 0;
+            readEndValues();
+
+            ViewCompat.offsetLeftAndRight(mContentView, target - left);
+            mContentView.setTranslationX(left - target);
+            mDraggedXOffset = target;
+
+            mRunning = true;
+            updateDrawerState(STATE_SETTLING);
+            dispatchOnDrawerSlide();
+
+            mContentView.animate()
+                    .translationX(0)
+                    .scaleX(mContentEnd[SCALE_X])
+                    .scaleY(mContentEnd[SCALE_Y])
+                    .alpha(mContentEnd[ALPHA])
+                    .setDuration(duration)
+                    .setInterpolator(mInterpolator)
+                    .setUpdateListener(null)
+                    .setListener(this)
+                    .start();
+
+            if (mMenuView != null) {
+                mMenuView.animate()
+                        .scaleX(mMenuEnd[SCALE_X])
+                        .scaleY(mMenuEnd[SCALE_Y])
+                        .alpha(mMenuEnd[ALPHA])
+                        .setDuration(duration)
+                        .setInterpolator(mInterpolator)
+                        .setUpdateListener(null)
+                        .setListener(null)
+                        .start();
+            }
+        }
+
+        /**
+         * Lets the transformer place the views at the target offset to read the values the
+         * animation ends at, then puts the views back where they are.
+         */
+        private void readEndValues() {
+            readValues(mContentView, mContentStart);
+            readValues(mMenuView, mMenuStart);
+            mDrawerTransformer.transformViews(mContentView, mMenuView, mTargetOffset);
+            readValues(mContentView, mContentEnd);
+            readValues(mMenuView, mMenuEnd);
+            writeValues(mContentView, mContentStart);
+            writeValues(mMenuView, mMenuStart);
+        }
+
+        private void readValues(View view, float[] values) {
+            if (view == null) return;
+
+            values[SCALE_X] = view.getScaleX();
+            values[SCALE_Y] = view.getScaleY();
+            values[ALPHA] = view.getAlpha();
+        }
+
+        private void writeValues(View view, float[] values) {
+            if (view == null) return;
+
+            view.setScaleX(values[SCALE_X]);
+            view.setScaleY(values[SCALE_Y]);
+            view.setAlpha(values[ALPHA]);
+        }
+
+        /**
+         * Cancels the animation, moves the content to where it is currently drawn
+         * and applies the drag offset that belongs to that position.
+         */
+        void stop() {
+            if (!mRunning) return;
+
+            mRunning = false;
+            mContentView.animate().cancel();
+            if (mMenuView != null) {
+                mMenuView.animate().cancel();
+            }
+
+            int translation = Math.round(mContentView.getTranslationX());
+            mContentView.setTranslationX(0);
+            ViewCompat.offsetLeftAndRight(mContentView, translation);
+            onContentPositionChanged(mContentView.getLeft());
+        }
 
-            int result = 0;
-            int resourceId = getResources().getIdentifier("status_bar_height", "dimen", "android");
-            if (resourceId > 0) {
-                result = getResources().getDimensionPixelSize(resourceId);
+        @Override
+        public void onAnimationEnd(Animator animation) {
+            mContentView.animate().setListener(null);
+            if (!mRunning) return;
+
+            mRunning = false;
+            applyDragOffset(mTargetOffset);
+            updateDrawerState(STATE_IDLE);
+        }
+    }
+
+    /**
+     * Collects changes to the effects of the drawer and applies them at once.
+     * {@see #edit()}.
+     */
+    public final class Editor {
+        private float mContentScaleClosed = DuoDrawerLayout.this.mContentScaleClosed;
+        private float mContentScaleOpen = DuoDrawerLayout.this.mContentScaleOpen;
+        private float mMenuScaleClosed = DuoDrawerLayout.this.mMenuScaleClosed;
+        private float mMenuScaleOpen = DuoDrawerLayout.this.mMenuScaleOpen;
+        private float mMenuAlphaClosed = DuoDrawerLayout.this.mMenuAlphaClosed;
+        private float mMenuAlphaOpen = DuoDrawerLayout.this.mMenuAlphaOpen;
+        private float mClickToCloseScale = DuoDrawerLayout.this.mClickToCloseScale;
+        private float mMarginFactor = DuoDrawerLayout.this.mMarginFactor;
+
+        private Editor() {
+        }
+
+        /**
+         * Set the scale of the content when the drawer is closed. 1.0f is the original size.
+         *
+         * @param contentScaleClosed Scale of the content if the drawer is closed.
+         * @return This editor.
+         */
+        public Editor setContentScaleClosed(float contentScaleClosed) {
+            mContentScaleClosed = checkScale(contentScaleClosed);
+            return this;
+        }
+
+        /**
+         * Set the scale of the content when the drawer is open. 1.0f is the original size.
+         *
+         * @param contentScaleOpen Scale of the content when the drawer is open.
+         * @return This editor.
+         */
+        public Editor setContentScaleOpen(float contentScaleOpen) {
+            mContentScaleOpen = checkScale(contentScaleOpen);
+            return this;
+        }
+
+        /**
+         * Set the scale of the menu when the drawer is closed. 1.0f is the original size.
+         *
+         * @param menuScaleClosed Scale of the menu when the drawer is closed.
+         * @return This editor.
+         */
+        public Editor setMenuScaleClosed(float menuScaleClosed) {
+            mMenuScaleClosed = checkScale(menuScaleClosed);
+            return this;
+        }
+
+        /**
+         * Set the scale of the menu when the drawer is open. 1.0f is the original size.
+         *
+         * @param menuScaleOpen Scale of the menu when the drawer is open.
+         * @return This editor.
+         */
+        public Editor setMenuScaleOpen(float menuScaleOpen) {
+            mMenuScaleOpen = checkScale(menuScaleOpen);
+            return this;
+        }
+
+        /**
+         * Set the alpha of the menu when the drawer is closed.
+         * 0.0f is transparent, 1.0f is completely visible.
+         *
+         * @param menuAlphaClosed Alpha of the menu when the drawer is closed.
+         * @return This editor.
+         */
+        public Editor setMenuAlphaClosed(float menuAlphaClosed) {
+            mMenuAlphaClosed = checkAlpha(menuAlphaClosed);
+            return this;
+        }
+
+        /**
+         * Set the alpha of the menu when the drawer is open.
+         * 0.0f is transparent, 1.0f is completely visible.
+         *
+         * @param menuAlphaOpen Alpha of the menu when the drawer is open.
+         * @return This editor.
+         */
+        public Editor setMenuAlphaOpen(float menuAlphaOpen) {
+            mMenuAlphaOpen = checkAlpha(menuAlphaOpen);
+            return this;
+        }
+
+        /**
+         * Set the scale of the click to close surface when the drawer is open.
+         *
+         * @param clickToCloseScale Scale of the click to close surface when the drawer is open.
+         * @return This editor.
+         */
+        public Editor setClickToCloseScale(float clickToCloseScale) {
+            mClickToCloseScale = checkScale(clickToCloseScale);
+            return this;
+        }
+
+        /**
+         * Set the amount of space of the content visible when the drawer is opened.
+         * 1.0f will move the drawer completely of the screen.
+         *
+         * @param marginFactor Amount of space of the content when drawer is open.
+         * @return This editor.
+         */
+        public Editor setMarginFactor(float marginFactor) {
+            if (!(marginFactor > 0 && marginFactor <= 1)) {
+                throw new IllegalArgumentException("The margin factor must be greater than 0 and at most 1.");
+            }
+
+            mMarginFactor = marginFactor;
+            return this;
+        }
+
+        /**
+         * Applies all changes and shows them at the current drag offset.
+         */
+        public void apply() {
+            DuoDrawerLayout.this.mContentScaleClosed = mContentScaleClosed;
+            DuoDrawerLayout.this.mContentScaleOpen = mContentScaleOpen;
+            DuoDrawerLayout.this.mMenuScaleClosed = mMenuScaleClosed;
+            DuoDrawerLayout.this.mMenuScaleOpen = mMenuScaleOpen;
+            DuoDrawerLayout.this.mMenuAlphaClosed = mMenuAlphaClosed;
+            DuoDrawerLayout.this.mMenuAlphaOpen = mMenuAlphaOpen;
+            DuoDrawerLayout.this.mClickToCloseScale = mClickToCloseScale;
+            DuoDrawerLayout.this.mMarginFactor = mMarginFactor;
+            updateScaleDrawerTransformer();
+
+            int openWidth = (int) (getWidth() * mMarginFactor);
+            if (openWidth != mOpenWidth) {
+                mOpenWidth = openWidth;
+                dispatchTransformerSizeChanged();
+
+                if (mContentView != null && !isAnimating()) {
+                    mDraggedXOffset = (int) (mOpenWidth * mDragOffset);
+                    requestLayout();
+                }
+            }
+
+            transformViews();
+            updateMenuVisibility();
+            invalidate();
+        }
+
+        private float checkScale(float scale) {
+            if (!(scale > 0) || Float.isInfinite(scale)) {
+                throw new IllegalArgumentException("A scale must be greater than 0.");
             }
-            return result;
+            return scale;
         }
+
+        private float checkAlpha(float alpha) {
+            if (!(alpha >= 0 && alpha <= 1)) {
+                throw new IllegalArgumentException("An alpha must be between 0 and 1.");
+            }
+            return alpha;
+        }
+    }
+
+    /**
+     * Listener that is notified when an animation started with
+     * {@link #animateToOffset(float, long, Interpolator, DrawerAnimationListener)} ends.
+     */
+    public interface DrawerAnimationListener {
+        /**
+         * Called when the animation reached its offset or was cancelled.
+         *
+         * @param drawerLayout The drawer layout that was animated.
+         * @param cancelled    True if the animation was cancelled or replaced by another
+         *                     animation, a drag or a settle before it reached its offset.
+         */
+        void onDrawerAnimationEnd(DuoDrawerLayout drawerLayout, boolean cancelled);
+    }
+
+    /**
+     * Listener that is notified when the content freezes because the drawer settled open
+     * and when it thaws because the drawer starts to close.
+     */
+    public interface ContentFreezeListener {
+        /**
+         * Called when the drawer settled open and the content is frozen.
+         *
+         * @param contentView The content view.
+         */
+        void onContentFrozen(View contentView);
+
+        /**
+         * Called when the drawer leaves the open state and the content runs again.
+         * Layout requests that were held back have been replayed at this point.
+         *
+         * @param contentView The content view.
+         */
+        void onContentThawed(View contentView);
+    }
+
+    /**
+     * A DrawerTransformer is invoked whenever the drag offset of the drawer changes.
+     * This offers an opportunity for the application to apply a custom transformation
+     * to the content and menu, comparable to a ViewPager's PageTransformer.
+     * <p>
+     * {@link #transformViews(View, View, float)} is called for every frame the drawer
+     * moves, so it should not allocate. Anything that can be computed upfront belongs in
+     * {@link #onSizeChanged(int, int, int)}.
+     */
+    public interface DrawerTransformer {
+        /**
+         * Called when the size of the drawer or the distance the content travels changes.
+         *
+         * @param width     Width of the drawer layout.
+         * @param height    Height of the drawer layout.
+         * @param openWidth Distance in pixels the content travels between closed and open.
+         */
+        void onSizeChanged(int width, int height, int openWidth);
+
+        /**
+         * Apply a transformation to the content and menu.
+         *
+         * @param contentView The content view. Might be null when it isn't resolved yet.
+         * @param menuView    The menu view. Might be null when it isn't resolved yet.
+         * @param dragOffset  The current drag offset, 0 is closed and 1 is open.
+         */
+        void transformViews(View contentView, View menuView, float dragOffset);
+    }
+
+    /**
+     * Decides which layer type the content and menu use for a drawer state.
+     * Animating the scale and alpha of a view that is drawn through a hardware layer
+     * only recomposites the layer, instead of redrawing the view every frame.
+     */
+    public interface LayerPolicy {
+        /**
+         * Called whenever the drawer state changes.
+         *
+         * @param view       The content or the menu view.
+         * @param state      The new drawer state. One of {@link #STATE_IDLE},
+         *                   {@link #STATE_DRAGGING} or {@link #STATE_SETTLING}.
+         * @param dragOffset The current drag offset, 0 is closed and 1 is open.
+         * @return {@link View#LAYER_TYPE_NONE}, {@link View#LAYER_TYPE_SOFTWARE}
+         * or {@link View#LAYER_TYPE_HARDWARE}.
+         */
+        int getLayerType(View view, @State int state, float dragOffset);
     }
 
     /**
@@ -866,4 +3409,20 @@ public class DuoDrawerLayout extends RelativeLayout {
     @Retention(RetentionPolicy.SOURCE)
     private @interface LockMode {
     }
+
+    /**
+     * @hide
+     */
+    @IntDef({CONTENT_SNAPSHOT_OFF, CONTENT_SNAPSHOT_ALWAYS, CONTENT_SNAPSHOT_AUTO})
+    @Retention(RetentionPolicy.SOURCE)
+    private @interface SnapshotMode {
+    }
+
+    /**
+     * @hide
+     */
+    @IntDef({MENU_WARM_UP_LAZY, MENU_WARM_UP_IDLE_PREWARM, MENU_WARM_UP_EAGER, MENU_WARM_UP_EDGE_TOUCH})
+    @Retention(RetentionPolicy.SOURCE)
+    private @interface MenuWarmUp {
+    }
 }
@@ -0,0 +1,334 @@
+package nl.psdcompany.duonavigationdrawer.views;
+
+import android.os.Handler;
+import android.os.Looper;
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import android.view.View;
+import android.view.ViewGroup;
+import android.widget.BaseAdapter;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * An adapter for the {@link DuoMenuView} backed by a list of items.
+ * <p>
+ * A new list is handed over with {@link #submitList(List)}. The difference with the current
+ * list is computed on a background thread and applied on the main thread as a series of
+ * inserted, removed, moved and changed items. The {@link DuoMenuView} updates only those
+ * option views, so changing a badge on one option costs one bind of that option.
+ * <p>
+ * {@link #areItemsTheSame(Object, Object)}, {@link #areContentsTheSame(Object, Object)} and
+ * {@link #getChangePayload(Object, Object)} are called on the background thread.
+ *
+ * @param <T> Type of the items in the list.
+ */
+public abstract class DuoMenuAdapter<T> extends BaseAdapter {
+    private static final int OPERATION_INSERT = 0;
+    private static final int OPERATION_REMOVE = 1;
+    private static final int OPERATION_MOVE = 2;
+    private static final int OPERATION_CHANGE = 3;
+
+    private static ExecutorService sDiffExecutor;
+
+    private final Handler mMainHandler = new Handler(Looper.getMainLooper());
+    private final List<MenuObserver> mMenuObservers = new ArrayList<>();
+    private List<T> mItems = Collections.emptyList();
+    private int mGeneration;
+    private boolean mApplyingDiff;
+
+    /**
+     * Returns true if both items represent the same option, for example when their ids are equal.
+     */
+    protected abstract boolean areItemsTheSame(@NonNull T oldItem, @NonNull T newItem);
+
+    /**
+     * Returns true if the option of an item looks the same in both lists.
+     * Only called when {@link #areItemsTheSame(Object, Object)} returned true.
+     */
+    protected abstract boolean areContentsTheSame(@NonNull T oldItem, @NonNull T newItem);
+
+    /**
+     * Returns what changed between two versions of an item, which is passed to
+     * {@link #onBindView(View, Object, int, Object)} to update only that part of the option.
+     *
+     * @return The change or null to bind the whole option.
+     */
+    @Nullable
+    protected Object getChangePayload(@NonNull T oldItem, @NonNull T newItem) {
+        return null;
+    }
+
+    /**
+     * Creates the view of an option.
+     *
+     * @param parent   The view the option is added to.
+     * @param viewType The view type of the option.
+     * @return A new option view.
+     */
+    @NonNull
+    protected abstract View onCreateView(@NonNull ViewGroup parent, int viewType);
+
+    /**
+     * Binds an item to the view of an option.
+     *
+     * @param view     The option view, created by {@link #onCreateView(ViewGroup, int)}.
+     * @param item     The item to show.
+     * @param position The position of the item.
+     * @param payload  What changed, see {@link #getChangePayload(Object, Object)}. Null to bind the whole option.
+     */
+    protected abstract void onBindView(@NonNull View view, @NonNull T item, int position, @Nullable Object payload);
+
+    /**
+     * Returns the list that is currently shown.
+     *
+     * @return The current list, which can't be modified.
+     */
+    @NonNull
+    public List<T> getCurrentList() {
+        return mItems;
+    }
+
+    /**
+     * Submits a new list to show. The difference with the current list is computed on a
+     * background thread. When a newer list is submitted before that finished, only the
+     * newest list is applied. The list must not be modified after it was submitted.
+     *
+     * @param list The new list or null for an empty list.
+     */
+    public void submitList(@Nullable List<T> list) {
+        final List<T> newItems = list == null ? Collections.<T>emptyList() : Collections.unmodifiableList(list);
+        final List<T> oldItems = mItems;
+        final int generation = ++mGeneration;
+
+        getDiffExecutor().execute(new Runnable() {
+            @Override
+            public void run() {
+                final Diff diff = computeDiff(oldItems, newItems);
+
+                mMainHandler.post(new Runnable() {
+                    @Override
+                    public void run() {
+                        if (generation == mGeneration) {
+                            applyDiff(newItems, diff);
+                        }
+                    }
+                });
+            }
+        });
+    }
+
+    /**
+     * Computes the operations that turn the old list into the new list.
+     * First the items that are gone are removed, then every position of the new list is either
+     * kept, moved into place or inserted. This takes a quadratic number of comparisons at worst,
+     * which is fine for the length of a menu.
+     */
+    private Diff computeDiff(List<T> oldItems, List<T> newItems) {
+        List<T> current = new ArrayList<>(oldItems);
+        Diff diff = new Diff();
+
+        for (int i = current.size() - 1; i >= 0; i--) {
+            if (indexOfSameItem(newItems, current.get(i), 0) == -1) {
+                current.remove(i);
+                diff.add(OPERATION_REMOVE, i, 0, null);
+            }
+        }
+
+        for (int i = 0; i < newItems.size(); i++) {
+            T newItem = newItems.get(i);
+            int index = indexOfSameItem(current, newItem, i);
+
+            if (index == -1) {
+                current.add(i, newItem);
+                diff.add(OPERATION_INSERT, i, 0, null);
+                continue;
+            }
+
+            if (index != i) {
+                current.add(i, current.remove(index));
+                diff.add(OPERATION_MOVE, index, i, null);
+            }
+
+            T oldItem = current.get(i);
+            if (!areContentsTheSame(oldItem, newItem)) {
+                diff.add(OPERATION_CHANGE, i, 0, getChangePayload(oldItem, newItem));
+            }
+            current.set(i, newItem);
+        }
+
+        return diff;
+    }
+
+    private int indexOfSameItem(List<T> items, T item, int start) {
+        for (int i = start; i < items.size(); i++) {
+            if (areItemsTheSame(items.get(i), item)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Switches to the new list and reports the operations to the menu observers.
+     * Other observers, like a virtualized option list, are notified that everything changed.
+     */
+    private void applyDiff(List<T> newItems, Diff diff) {
+        mItems = newItems;
+        mApplyingDiff = true;
+
+        try {
+            for (int i = 0; i < mMenuObservers.size(); i++) {
+                MenuObserver observer = mMenuObservers.get(i);
+
+                for (int j = 0; j < diff.mSize; j++) {
+                    int first = diff.mFirst[j];
+                    switch (diff.mTypes[j]) {
+                        case OPERATION_INSERT:
+                            observer.onItemInserted(first);
+                            break;
+                        case OPERATION_REMOVE:
+                            observer.onItemRemoved(first);
+                            break;
+                        case OPERATION_MOVE:
+                            observer.onItemMoved(first, diff.mSecond[j]);
+                            break;
+                        case OPERATION_CHANGE:
+                            observer.onItemChanged(first, diff.mPayloads.get(j));
+                            break;
+                    }
+                }
+            }
+
+            notifyDataSetChanged();
+        } finally {
+            mApplyingDiff = false;
+        }
+    }
+
+    /**
+     * Checks if the adapter is reporting the result of {@link #submitList(List)}.
+     * Menu observers already received the change one item at a time.
+     */
+    boolean isApplyingDiff() {
+        return mApplyingDiff;
+    }
+
+    void registerMenuObserver(MenuObserver observer) {
+        if (!mMenuObservers.contains(observer)) {
+            mMenuObservers.add(observer);
+        }
+    }
+
+    void unregisterMenuObserver(MenuObserver observer) {
+        mMenuObservers.remove(observer);
+    }
+
+    /**
+     * Binds an item again, only applying the given change.
+     */
+    void bindView(View view, int position, @Nullable Object payload) {
+        onBindView(view, mItems.get(position), position, payload);
+    }
+
+    @Override
+    public int getCount() {
+        return mItems.size();
+    }
+
+    @Override
+    public T getItem(int position) {
+        return mItems.get(position);
+    }
+
+    /**
+     * Returns an id that stays with an item when the list changes, for example the id of the
+     * option it represents. Only called when {@link #hasStableIds()} returns true, override both
+     * to let the menu reuse the view of an option after it moved.
+     *
+     * @param item The item to return the id of.
+     * @return The id of the item.
+     */
+    protected long getStableId(@NonNull T item) {
+        throw new IllegalStateException("The adapter has stable ids. Please override getStableId() to return the id of an item.");
+    }
+
+    /**
+     * Returns the position of the item, unless {@link #hasStableIds()} returns true,
+     * in which case the id comes from {@link #getStableId(Object)}.
+     */
+    @Override
+    public long getItemId(int position) {
+        return hasStableIds() ? getStableId(mItems.get(position)) : position;
+    }
+
+    @Override
+    public View getView(int position, View convertView, ViewGroup parent) {
+        View view = convertView != null ? convertView : onCreateView(parent, getItemViewType(position));
+        onBindView(view, mItems.get(position), position, null);
+        return view;
+    }
+
+    private static synchronized Executor getDiffExecutor() {
+        if (sDiffExecutor == null) {
+            sDiffExecutor = Executors.newSingleThreadExecutor(new ThreadFactory() {
+                @Override
+                public Thread newThread(@NonNull Runnable runnable) {
+                    Thread thread = new Thread(runnable, "DuoMenuAdapter diff");
+                    thread.setDaemon(true);
+                    return thread;
+                }
+            });
+        }
+        return sDiffExecutor;
+    }
+
+    /**
+     * Notified one item at a time when a submitted list is applied.
+     */
+    interface MenuObserver {
+        void onItemInserted(int position);
+
+        void onItemRemoved(int position);
+
+        void onItemMoved(int fromPosition, int toPosition);
+
+        void onItemChanged(int position, @Nullable Object payload);
+    }
+
+    /**
+     * The operations that turn one list into another, in the order they have to be applied.
+     */
+    private static class Diff {
+        private int[] mTypes = new int[8];
+        private int[] mFirst = new int[8];
+        private int[] mSecond = new int[8];
+        private final List<Object> mPayloads = new ArrayList<>();
+        private int mSize;
+
+        void add(int type, int first, int second, @Nullable Object payload) {
+            if (mSize == mTypes.length) {
+                mTypes = grow(mTypes);
+                mFirst = grow(mFirst);
+                mSecond = grow(mSecond);
+            }
+            mTypes[mSize] = type;
+            mFirst[mSize] = first;
+            mSecond[mSize] = second;
+            mPayloads.add(payload);
+            mSize++;
+        }
+
+        private static int[] grow(int[] values) {
+            int[] grown = new int[values.length * 2];
+            System.arraycopy(values, 0, grown, 0, values.length);
+            return grown;
+        }
+    }
+}
@@ -4,20 +4,25 @@ import android.content.Context;
 import android.content.res.TypedArray;
 import android.database.DataSetObserver;
 import android.graphics.drawable.Drawable;
+import android.os.Bundle;
+import android.os.Parcelable;
 
 import androidx.annotation.DrawableRes;
 import androidx.annotation.LayoutRes;
+import androidx.collection.LongSparseArray;
 import androidx.core.content.ContextCompat;
-import androidx.appcompat.widget.Toolbar;
 import android.util.AttributeSet;
 import android.util.TypedValue;
 import android.view.LayoutInflater;
 import android.view.View;
 import android.view.ViewGroup;
 import android.widget.Adapter;
+import android.widget.AdapterView;
 import android.widget.Button;
 import android.widget.ImageView;
 import android.widget.LinearLayout;
+import android.widget.ListAdapter;
+import android.widget.ListView;
 import android.widget.RelativeLayout;
 
 import nl.psdcompany.psd.duonavigationdrawer.R;
@@ -27,6 +32,11 @@ import nl.psdcompany.psd.duonavigationdrawer.R;
  */
 
 public class DuoMenuView extends RelativeLayout {
+    /**
+     * Position used when no option is selected.
+     */
+    public static final int NO_SELECTION = -1;
+
     private static final String TAG_FOOTER = "footer";
     private static final String TAG_HEADER = "header";
 
@@ -47,6 +57,81 @@ public class DuoMenuView extends RelativeLayout {
     private MenuViewHolder mMenuViewHolder;
     private LayoutInflater mLayoutInflater;
     private Adapter mAdapter;
+    private boolean mVirtualized;
+    private int mSelectedPosition = NO_SELECTION;
+    private boolean mSelectionOwned;
+
+    private final LongSparseArray<View> mOptionViewsById = new LongSparseArray<>();
+    private final DuoMenuAdapter.MenuObserver mMenuObserver = new DuoMenuAdapter.MenuObserver() {
+        @Override
+        public void onItemInserted(int position) {
+            if (mSelectedPosition >= position) {
+                mSelectedPosition++;
+            }
+
+            LinearLayout menuOptions = mMenuViewHolder.mMenuOptions;
+            if (menuOptions == null || isOptionsListUsed()) return;
+
+            View optionView = mAdapter.getView(position, null, DuoMenuView.this);
+            menuOptions.addView(optionView, position);
+            updateOptionTags(position, menuOptions.getChildCount());
+        }
+
+        @Override
+        public void onItemRemoved(int position) {
+            if (mSelectedPosition == position) {
+                mSelectedPosition = NO_SELECTION;
+            } else if (mSelectedPosition > position) {
+                mSelectedPosition--;
+            }
+
+            LinearLayout menuOptions = mMenuViewHolder.mMenuOptions;
+            if (menuOptions == null || isOptionsListUsed()) return;
+
+            menuOptions.removeViewAt(position);
+            updateOptionTags(position, menuOptions.getChildCount());
+        }
+
+        @Override
+        public void onItemMoved(int fromPosition, int toPosition) {
+            if (mSelectedPosition == fromPosition) {
+                mSelectedPosition = toPosition;
+            } else if (fromPosition < mSelectedPosition && mSelectedPosition <= toPosition) {
+                mSelectedPosition--;
+            } else if (toPosition <= mSelectedPosition && mSelectedPosition < fromPosition) {
+                mSelectedPosition++;
+            }
+
+            LinearLayout menuOptions = mMenuViewHolder.mMenuOptions;
+            if (menuOptions == null || isOptionsListUsed()) return;
+
+            View optionView = menuOptions.getChildAt(fromPosition);
+            menuOptions.removeViewAt(fromPosition);
+            menuOptions.addView(optionView, toPosition);
+            updateOptionTags(Math.min(fromPosition, toPosition), Math.max(fromPosition, toPosition) + 1);
+        }
+
+        @Override
+        public void onItemChanged(int position, Object payload) {
+            LinearLayout menuOptions = mMenuViewHolder.mMenuOptions;
+            if (menuOptions == null || isOptionsListUsed()) return;
+
+            View optionView = menuOptions.getChildAt(position);
+            ((DuoMenuAdapter<?>) mAdapter).bindView(optionView, position, payload);
+            if (mSelectionOwned) {
+                optionView.setSelected(position == mSelectedPosition);
+            }
+        }
+    };
+    private final OnClickListener mOptionClickListener = new OnClickListener() {
+        @Override
+        public void onClick(View v) {
+            Object position = v.getTag(R.id.duo_view_menu_option_position);
+            if (mOnMenuClickListener != null && position != null) {
+                mOnMenuClickListener.onOptionClicked((int) position, mAdapter.getItem((int) position));
+            }
+        }
+    };
 
     public DuoMenuView(Context context) {
         this(context, null);
@@ -69,6 +154,7 @@ public class DuoMenuView extends RelativeLayout {
             mBackgroundDrawableId = typedArray.getResourceId(R.styleable.DuoMenuView_background, DEFAULT_DRAWABLE_ATTRIBUTE_VALUE);
             mHeaderViewId = typedArray.getResourceId(R.styleable.DuoMenuView_header, DEFAULT_LAYOUT_ATTRIBUTE_VALUE);
             mFooterViewId = typedArray.getResourceId(R.styleable.DuoMenuView_footer, DEFAULT_LAYOUT_ATTRIBUTE_VALUE);
+            mVirtualized = typedArray.getBoolean(R.styleable.DuoMenuView_virtualized, false);
         } finally {
             typedArray.recycle();
         }
@@ -86,12 +172,32 @@ public class DuoMenuView extends RelativeLayout {
             @Override
             public void onChanged() {
                 super.onChanged();
+                // The options and the selection already followed a submitted list one item at a time.
+                if (mAdapter instanceof DuoMenuAdapter && ((DuoMenuAdapter<?>) mAdapter).isApplyingDiff()) {
+                    handleListSelection();
+                    return;
+                }
+                if (mSelectedPosition >= mAdapter.getCount()) {
+                    mSelectedPosition = NO_SELECTION;
+                }
                 handleOptions();
-                postInvalidate();
-                requestLayout();
+                handleListSelection();
             }
         };
 
+        if (mMenuViewHolder.mMenuOptionsList != null) {
+            mMenuViewHolder.mMenuOptionsList.setOnItemClickListener(new AdapterView.OnItemClickListener() {
+                @Override
+                public void onItemClick(AdapterView<?> parent, View view, int position, long id) {
+                    // The list checks the clicked option, the selection stays up to the listener.
+                    handleListSelection();
+                    if (mOnMenuClickListener != null) {
+                        mOnMenuClickListener.onOptionClicked(position, mAdapter.getItem(position));
+                    }
+                }
+            });
+        }
+
         handleBackground();
         handleHeader();
         handleFooter();
@@ -186,36 +292,165 @@ public class DuoMenuView extends RelativeLayout {
     }
 
     /**
-     * Handles the menu options when adapter is set.
+     * Handles the menu options when adapter is set or its data changed.
+     * The option views that are already shown are handed to the adapter as convert view,
+     * matched by item id when the adapter has stable ids and by position otherwise.
+     * Only options that were added, removed or moved change the children of the options layout.
      */
     private void handleOptions() {
-        if (mAdapter == null || mAdapter.isEmpty() || mMenuViewHolder.mMenuOptions == null) {
+        LinearLayout menuOptions = mMenuViewHolder.mMenuOptions;
+        if (menuOptions == null) {
             return;
         }
 
-        if (mMenuViewHolder.mMenuOptions.getChildCount() > 0) {
-            mMenuViewHolder.mMenuOptions.removeAllViews();
+        if (mAdapter == null || mAdapter.isEmpty() || isOptionsListUsed()) {
+            if (menuOptions.getChildCount() > 0) {
+                menuOptions.removeAllViews();
+            }
+            return;
+        }
+
+        boolean hasStableIds = mAdapter.hasStableIds();
+        if (hasStableIds) {
+            for (int i = 0; i < menuOptions.getChildCount(); i++) {
+                View child = menuOptions.getChildAt(i);
+                Object id = child.getTag(R.id.duo_view_menu_option_id);
+                if (id != null) {
+                    mOptionViewsById.put((long) id, child);
+                }
+            }
         }
 
+        int index = 0;
         for (int i = 0; i < mAdapter.getCount(); i++) {
-            final int index = i;
-
-            View optionView = mAdapter.getView(i, null, this);
-
-            if (optionView != null) {
-                mMenuViewHolder.mMenuOptions.addView(optionView);
-                optionView.setOnClickListener(new OnClickListener() {
-                    @Override
-                    public void onClick(View v) {
-                        if (mOnMenuClickListener != null) {
-                            mOnMenuClickListener.onOptionClicked(index, mAdapter.getItem(index));
-                        }
-                    }
-                });
+            long id = mAdapter.getItemId(i);
+            int viewType = mAdapter.getItemViewType(i);
+
+            View convertView;
+            if (hasStableIds) {
+                convertView = mOptionViewsById.get(id);
+                mOptionViewsById.remove(id);
+            } else {
+                convertView = index < menuOptions.getChildCount() ? menuOptions.getChildAt(index) : null;
+            }
+
+            if (convertView != null && !Integer.valueOf(viewType).equals(convertView.getTag(R.id.duo_view_menu_option_type))) {
+                convertView = null;
             }
+
+            View optionView = mAdapter.getView(i, convertView, this);
+            if (optionView == null) {
+                continue;
+            }
+
+            if (menuOptions.getChildAt(index) != optionView) {
+                if (optionView.getParent() == menuOptions) {
+                    menuOptions.removeView(optionView);
+                }
+                menuOptions.addView(optionView, index);
+            }
+
+            bindOptionTags(optionView, i);
+            index++;
+        }
+
+        if (index < menuOptions.getChildCount()) {
+            menuOptions.removeViews(index, menuOptions.getChildCount() - index);
+        }
+        mOptionViewsById.clear();
+    }
+
+    /**
+     * Stores the item id, view type and position of an option on its view,
+     * lets the shared click listener handle its clicks and applies the selection
+     * once the menu keeps track of it.
+     */
+    private void bindOptionTags(View optionView, int position) {
+        optionView.setTag(R.id.duo_view_menu_option_id, mAdapter.getItemId(position));
+        optionView.setTag(R.id.duo_view_menu_option_type, mAdapter.getItemViewType(position));
+        optionView.setTag(R.id.duo_view_menu_option_position, position);
+        optionView.setOnClickListener(mOptionClickListener);
+        if (mSelectionOwned) {
+            optionView.setSelected(position == mSelectedPosition);
         }
     }
 
+    /**
+     * Returns the view of the option at a position in the options layout.
+     *
+     * @return The option view or null if the option isn't in the options layout.
+     */
+    private View getOptionView(int position) {
+        LinearLayout menuOptions = mMenuViewHolder.mMenuOptions;
+        if (menuOptions == null || position < 0 || isOptionsListUsed()) {
+            return null;
+        }
+
+        View optionView = menuOptions.getChildAt(position);
+        if (optionView == null || !Integer.valueOf(position).equals(optionView.getTag(R.id.duo_view_menu_option_position))) {
+            return null;
+        }
+        return optionView;
+    }
+
+    /**
+     * Checks the selected option in the virtualized list. The list applies it to
+     * the option views it shows and to every option view it binds later.
+     */
+    private void handleListSelection() {
+        ListView menuOptionsList = mMenuViewHolder.mMenuOptionsList;
+        if (menuOptionsList == null || !isOptionsListUsed() || !mSelectionOwned) {
+            return;
+        }
+
+        if (mSelectedPosition == NO_SELECTION || mSelectedPosition >= menuOptionsList.getCount()) {
+            menuOptionsList.clearChoices();
+            menuOptionsList.requestLayout();
+        } else {
+            menuOptionsList.setItemChecked(mSelectedPosition, true);
+        }
+    }
+
+    /**
+     * Updates the tags of the options in a range after options were inserted, removed or moved.
+     */
+    private void updateOptionTags(int from, int to) {
+        for (int i = from; i < to; i++) {
+            bindOptionTags(mMenuViewHolder.mMenuOptions.getChildAt(i), i);
+        }
+    }
+
+    /**
+     * Shows the options either in the virtualized list or in the options layout.
+     */
+    private void handleVirtualization() {
+        ListView menuOptionsList = mMenuViewHolder.mMenuOptionsList;
+        if (menuOptionsList == null || mMenuViewHolder.mMenuOptionsScroll == null) {
+            return;
+        }
+
+        boolean optionsListUsed = isOptionsListUsed();
+        ListAdapter listAdapter = optionsListUsed ? (ListAdapter) mAdapter : null;
+        if (menuOptionsList.getAdapter() != listAdapter) {
+            menuOptionsList.setAdapter(listAdapter);
+        }
+
+        menuOptionsList.setVisibility(optionsListUsed ? VISIBLE : GONE);
+        mMenuViewHolder.mMenuOptionsScroll.setVisibility(optionsListUsed ? GONE : VISIBLE);
+        handleOptions();
+        handleListSelection();
+    }
+
+    /**
+     * Checks if the options are shown in the virtualized list.
+     * Adapters that aren't a {@link ListAdapter} are always shown in the options layout.
+     *
+     * @return True if the options are shown in the virtualized list.
+     */
+    private boolean isOptionsListUsed() {
+        return mVirtualized && mAdapter instanceof ListAdapter && mMenuViewHolder.mMenuOptionsList != null;
+    }
+
     /**
      * Gets the primary color of this project.
      *
@@ -304,31 +539,128 @@ public class DuoMenuView extends RelativeLayout {
      */
     public void setAdapter(Adapter adapter) {
         if (mAdapter != null) mAdapter.unregisterDataSetObserver(mDataSetObserver);
+        if (mAdapter instanceof DuoMenuAdapter) {
+            ((DuoMenuAdapter<?>) mAdapter).unregisterMenuObserver(mMenuObserver);
+        }
+        if (mMenuViewHolder.mMenuOptions != null) {
+            mMenuViewHolder.mMenuOptions.removeAllViews();
+        }
         mAdapter = adapter;
         mAdapter.registerDataSetObserver(mDataSetObserver);
-        handleOptions();
+        if (mAdapter instanceof DuoMenuAdapter) {
+            ((DuoMenuAdapter<?>) mAdapter).registerMenuObserver(mMenuObserver);
+        }
+        handleVirtualization();
     }
 
     /**
-     * Disables/Enables a view and all of its child views.
-     * Leaves the toolbar enabled at all times.
+     * Checks if the options are virtualized.
      *
-     * @param view    The view to be disabled/enabled
-     * @param enabled True or false, enabled/disabled
+     * @return True if the options are virtualized.
      */
-    private void setViewAndChildrenEnabled(View view, boolean enabled) {
-        view.setEnabled(enabled);
-        if (view instanceof ViewGroup) {
-            ViewGroup viewGroup = (ViewGroup) view;
-            for (int i = 0; i < viewGroup.getChildCount(); i++) {
-                View child = viewGroup.getChildAt(i);
-                if (child instanceof Toolbar) {
-                    setViewAndChildrenEnabled(child, true);
-                } else {
-                    setViewAndChildrenEnabled(child, enabled);
-                }
+    public boolean isVirtualized() {
+        return mVirtualized;
+    }
+
+    /**
+     * Virtualize the options for menus with many options. Only the options that are visible
+     * are created, and they are recycled by view type while the options scroll, like in a
+     * {@link ListView}. Clicks are still reported through {@link OnMenuClickListener#onOptionClicked(int, Object)}
+     * and the header and footer stay where they are. The adapter has to be a {@link ListAdapter}.
+     *
+     * @param virtualized True to virtualize the options.
+     */
+    public void setVirtualized(boolean virtualized) {
+        mVirtualized = virtualized;
+        handleVirtualization();
+    }
+
+    /**
+     * Returns the position of the selected option.
+     *
+     * @return The selected position or {@link #NO_SELECTION}.
+     */
+    public int getSelectedPosition() {
+        return mSelectedPosition;
+    }
+
+    /**
+     * Selects the option at a position and deselects the option that was selected before.
+     * Only those two option views are updated. The selection belongs to the position,
+     * so it is applied again whenever the options are bound and it is kept when the
+     * view state is saved. It follows its option when a {@link DuoMenuAdapter} inserts,
+     * removes or moves options, and it is cleared when its option is removed or the
+     * adapter no longer has that position. In the virtualized list the option views are
+     * checked, which shows up as the activated state.
+     * <p>
+     * Until this is called the menu leaves the selected state of the option views to the
+     * adapter. After the first call every option the menu binds gets the selection of the menu.
+     *
+     * @param position The position to select or {@link #NO_SELECTION} to select nothing.
+     */
+    public void setSelectedPosition(int position) {
+        if (position < NO_SELECTION) {
+            throw new IllegalArgumentException("The selected position can't be negative, use NO_SELECTION to select nothing.");
+        }
+        if (position == mSelectedPosition && mSelectionOwned) {
+            return;
+        }
+
+        int previousPosition = mSelectedPosition;
+        mSelectedPosition = position;
+
+        if (!mSelectionOwned) {
+            mSelectionOwned = true;
+            handleSelection();
+            handleListSelection();
+            return;
+        }
+
+        View previousView = getOptionView(previousPosition);
+        if (previousView != null) {
+            previousView.setSelected(false);
+        }
+        View selectedView = getOptionView(position);
+        if (selectedView != null) {
+            selectedView.setSelected(true);
+        }
+        handleListSelection();
+    }
+
+    /**
+     * Applies the selection to every option view in the options layout.
+     */
+    private void handleSelection() {
+        LinearLayout menuOptions = mMenuViewHolder.mMenuOptions;
+        if (menuOptions == null || isOptionsListUsed()) {
+            return;
+        }
+
+        for (int i = 0; i < menuOptions.getChildCount(); i++) {
+            menuOptions.getChildAt(i).setSelected(i == mSelectedPosition);
+        }
+    }
+
+    @Override
+    protected Parcelable onSaveInstanceState() {
+        Bundle bundle = new Bundle();
+        bundle.putParcelable("superState", super.onSaveInstanceState());
+        if (mSelectionOwned) {
+            bundle.putInt("selectedPosition", mSelectedPosition);
+        }
+        return bundle;
+    }
+
+    @Override
+    protected void onRestoreInstanceState(Parcelable state) {
+        if (state instanceof Bundle) {
+            Bundle bundle = (Bundle) state;
+            state = bundle.getParcelable("superState");
+            if (bundle.containsKey("selectedPosition")) {
+                setSelectedPosition(bundle.getInt("selectedPosition"));
             }
         }
+        super.onRestoreInstanceState(state);
     }
 
     /**
@@ -336,12 +668,16 @@ public class DuoMenuView extends RelativeLayout {
      */
     private class MenuViewHolder {
         private LinearLayout mMenuOptions;
+        private ViewGroup mMenuOptionsScroll;
+        private ListView mMenuOptionsList;
         private ImageView mMenuBackground;
         private ViewGroup mMenuHeader;
         private ViewGroup mMenuFooter;
 
         MenuViewHolder(ViewGroup rootView) {
             this.mMenuOptions = (LinearLayout) rootView.findViewById(R.id.duo_view_menu_options_layout);
+            this.mMenuOptionsScroll = (ViewGroup) rootView.findViewById(R.id.duo_view_menu_options_scroll);
+            this.mMenuOptionsList = (ListView) rootView.findViewById(R.id.duo_view_menu_options_list);
             this.mMenuBackground = (ImageView) rootView.findViewById(R.id.duo_view_menu_background);
             this.mMenuHeader = (ViewGroup) rootView.findViewById(R.id.duo_view_menu_header_layout);
             this.mMenuFooter = (ViewGroup) rootView.findViewById(R.id.duo_view_menu_footer_layout);
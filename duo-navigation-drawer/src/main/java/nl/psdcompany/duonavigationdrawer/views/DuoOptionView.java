@@ -2,8 +2,10 @@ package nl.psdcompany.duonavigationdrawer.views;
 
 import android.content.Context;
 import android.graphics.drawable.Drawable;
+import android.graphics.drawable.StateListDrawable;
 import androidx.annotation.Nullable;
 import android.util.AttributeSet;
+import android.util.StateSet;
 import android.view.ViewGroup;
 import android.widget.ImageView;
 import android.widget.RelativeLayout;
@@ -13,13 +15,18 @@ import nl.psdcompany.psd.duonavigationdrawer.R;
 
 /**
  * Created by PSD on 13-04-17.
+ * <p>
+ * Selection is the selected state of the view. The text color and the selectors are state
+ * lists, so selecting an option only refreshes the drawable state of its views. An activated
+ * option, like the checked option of a virtualized {@link DuoMenuView}, looks selected too.
+ * By default a selected option has white text, shows the selector in full and shows the
+ * side selector. Set a {@link android.animation.StateListAnimator} to animate the change.
  */
 
 public class DuoOptionView extends RelativeLayout {
     private OptionViewHolder mOptionViewHolder;
 
-    private static final float ALPHA_CHECKED = 1f;
-    private static final float ALPHA_UNCHECKED = 0.5f;
+    private static final int ALPHA_UNSELECTED = 128;
 
     private boolean mIsSideSelectorEnabled = false;
     private boolean mIsSelectorEnabled = false;
@@ -41,13 +48,50 @@ public class DuoOptionView extends RelativeLayout {
         ViewGroup rootView = (ViewGroup) inflate(getContext(), R.layout.duo_view_option, this);
 
         mOptionViewHolder = new OptionViewHolder(rootView);
+        setSelectorDrawable(mOptionViewHolder.mImageViewSelector.getDrawable());
+        setSideSelectorDrawable(mOptionViewHolder.mImageViewSelectorSide.getDrawable());
     }
 
     @Override
-    protected void onLayout(boolean changed, int l, int t, int r, int b) {
-        super.onLayout(changed, l, t, r, b);
+    protected int[] onCreateDrawableState(int extraSpace) {
+        if (!isActivated() || isSelected()) {
+            return super.onCreateDrawableState(extraSpace);
+        }
+
+        int[] drawableState = super.onCreateDrawableState(extraSpace + 1);
+        return mergeDrawableStates(drawableState, SELECTED_STATE_SET);
+    }
+
+    /**
+     * Shows the selector at half alpha and the selected selector in full.
+     * A drawable that can't be copied is shown the same in both states.
+     */
+    private void setSelectorDrawable(Drawable drawable) {
+        Drawable.ConstantState constantState = drawable.getConstantState();
+        if (constantState == null) {
+            mOptionViewHolder.mImageViewSelector.setImageDrawable(drawable);
+            return;
+        }
+
+        Drawable unselectedDrawable = constantState.newDrawable(getResources()).mutate();
+        unselectedDrawable.setAlpha(ALPHA_UNSELECTED);
+
+        StateListDrawable stateListDrawable = new StateListDrawable();
+        stateListDrawable.setConstantSize(true);
+        stateListDrawable.addState(SELECTED_STATE_SET, drawable);
+        stateListDrawable.addState(StateSet.WILD_CARD, unselectedDrawable);
+        mOptionViewHolder.mImageViewSelector.setImageDrawable(stateListDrawable);
+    }
 
-        setSelected(isSelected());
+    /**
+     * Only shows the side selector when selected. It keeps its size when it isn't shown,
+     * so selecting an option doesn't move the option text.
+     */
+    private void setSideSelectorDrawable(Drawable drawable) {
+        StateListDrawable stateListDrawable = new StateListDrawable();
+        stateListDrawable.setConstantSize(true);
+        stateListDrawable.addState(SELECTED_STATE_SET, drawable);
+        mOptionViewHolder.mImageViewSelectorSide.setImageDrawable(stateListDrawable);
     }
 
     /**
@@ -77,8 +121,7 @@ public class DuoOptionView extends RelativeLayout {
      */
     public void setSideSelectorEnabled(boolean sideSelectorEnabled) {
         mIsSideSelectorEnabled = sideSelectorEnabled;
-        invalidate();
-        requestLayout();
+        mOptionViewHolder.mImageViewSelectorSide.setVisibility(sideSelectorEnabled ? VISIBLE : GONE);
     }
 
     /**
@@ -89,50 +132,7 @@ public class DuoOptionView extends RelativeLayout {
      */
     public void setSelectorEnabled(boolean selectorEnabled) {
         mIsSelectorEnabled = selectorEnabled;
-        invalidate();
-        requestLayout();
-    }
-
-    /**
-     * Set the option view as selected.
-     * Using the wishes of the programmer.
-     * By default only makes the option text white.
-     *
-     * @param selected Either true or false. Setting the option view as selected/unselected.
-     */
-    public void setSelected(boolean selected) {
-        if (selected) {
-            mOptionViewHolder.mTextViewOption.setAlpha(ALPHA_CHECKED);
-            if (mIsSelectorEnabled) {
-                mOptionViewHolder.mImageViewSelector.setVisibility(VISIBLE);
-                mOptionViewHolder.mImageViewSelector.setAlpha(ALPHA_CHECKED);
-            } else {
-                mOptionViewHolder.mImageViewSelector.setVisibility(GONE);
-            }
-            if (mIsSideSelectorEnabled) {
-                mOptionViewHolder.mImageViewSelectorSide.setVisibility(VISIBLE);
-            }
-        } else {
-            mOptionViewHolder.mTextViewOption.setAlpha(ALPHA_UNCHECKED);
-            if (mIsSelectorEnabled) {
-                mOptionViewHolder.mImageViewSelector.setVisibility(VISIBLE);
-                mOptionViewHolder.mImageViewSelector.setAlpha(ALPHA_UNCHECKED);
-            } else {
-                mOptionViewHolder.mImageViewSelector.setVisibility(GONE);
-            }
-            if (mIsSideSelectorEnabled) {
-                mOptionViewHolder.mImageViewSelectorSide.setVisibility(GONE);
-            }
-        }
-    }
-
-    /**
-     * Check if the option view is selected or not.
-     *
-     * @return True if the option view is selected.
-     */
-    public boolean isSelected() {
-        return mOptionViewHolder.mTextViewOption.getAlpha() == ALPHA_CHECKED;
+        mOptionViewHolder.mImageViewSelector.setVisibility(selectorEnabled ? VISIBLE : GONE);
     }
 
     /**
@@ -142,8 +142,6 @@ public class DuoOptionView extends RelativeLayout {
      */
     public void bind(String optionText) {
         mOptionViewHolder.mTextViewOption.setText(optionText);
-        mOptionViewHolder.mTextViewOption.setAlpha(ALPHA_UNCHECKED);
-        mOptionViewHolder.mImageViewSelector.setVisibility(GONE);
     }
 
     /**
@@ -156,11 +154,9 @@ public class DuoOptionView extends RelativeLayout {
      */
     public void bind(String optionText, @Nullable Drawable selectorDrawable) {
         mOptionViewHolder.mTextViewOption.setText(optionText);
-        mOptionViewHolder.mTextViewOption.setAlpha(ALPHA_UNCHECKED);
         if (selectorDrawable != null) {
-            mOptionViewHolder.mImageViewSelector.setImageDrawable(selectorDrawable);
+            setSelectorDrawable(selectorDrawable);
         }
-        mOptionViewHolder.mImageViewSelector.setAlpha(ALPHA_UNCHECKED);
         setSelectorEnabled(true);
     }
 
@@ -177,13 +173,11 @@ public class DuoOptionView extends RelativeLayout {
      */
     public void bind(String optionText, @Nullable Drawable selectorDrawable, @Nullable Drawable selectorSideDrawable) {
         mOptionViewHolder.mTextViewOption.setText(optionText);
-        mOptionViewHolder.mTextViewOption.setAlpha(ALPHA_UNCHECKED);
         if (selectorDrawable != null) {
-            mOptionViewHolder.mImageViewSelector.setImageDrawable(selectorDrawable);
+            setSelectorDrawable(selectorDrawable);
         }
-        mOptionViewHolder.mImageViewSelector.setAlpha(ALPHA_UNCHECKED);
         if (selectorSideDrawable != null) {
-            mOptionViewHolder.mImageViewSelectorSide.setImageDrawable(selectorSideDrawable);
+            setSideSelectorDrawable(selectorSideDrawable);
         }
         setSelectorEnabled(true);
         setSideSelectorEnabled(true);
@@ -209,7 +203,7 @@ public class DuoOptionView extends RelativeLayout {
          * By default both selectors are disabled.
          */
         private void hideSelectorsByDefault() {
-            mImageViewSelector.setVisibility(INVISIBLE);
+            mImageViewSelector.setVisibility(GONE);
             mImageViewSelectorSide.setVisibility(GONE);
         }
     }
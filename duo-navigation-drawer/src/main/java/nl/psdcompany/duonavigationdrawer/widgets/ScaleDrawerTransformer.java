@@ -0,0 +1,159 @@
+package nl.psdcompany.duonavigationdrawer.widgets;
+
+import android.animation.TimeInterpolator;
+import androidx.annotation.Nullable;
+import android.view.View;
+
+import nl.psdcompany.duonavigationdrawer.views.DuoDrawerLayout;
+
+/**
+ * The default {@link DuoDrawerLayout.DrawerTransformer}.
+ * Scales the content and the menu and fades the menu in while the drawer opens.
+ * <p>
+ * When an interpolator is set its curve is sampled into a lookup table whenever
+ * the size of the drawer changes. Transforming the views only reads from this table,
+ * so a non-linear curve costs no more than a linear one and nothing is allocated
+ * while the drawer moves.
+ */
+public class ScaleDrawerTransformer implements DuoDrawerLayout.DrawerTransformer {
+    private static final int MIN_CURVE_SAMPLES = 2;
+    private static final int MAX_CURVE_SAMPLES = 512;
+
+    private float mContentScaleClosed = 1.0f;
+    private float mContentScaleOpen = 0.7f;
+    private float mMenuScaleClosed = 1.1f;
+    private float mMenuScaleOpen = 1.0f;
+    private float mMenuAlphaClosed = 0.0f;
+    private float mMenuAlphaOpen = 1.0f;
+
+    private TimeInterpolator mInterpolator;
+    private float[] mCurve;
+    private int mOpenWidth;
+
+    public ScaleDrawerTransformer() {
+        this(null);
+    }
+
+    /**
+     * @param interpolator Curve applied to the drag offset before it is used to
+     *                     scale and fade the views. Set to "null" for a linear curve.
+     */
+    public ScaleDrawerTransformer(@Nullable TimeInterpolator interpolator) {
+        mInterpolator = interpolator;
+    }
+
+    /**
+     * Set the scale of the content when the drawer is closed and open. 1.0f is the original size.
+     *
+     * @param closed Scale of the content when the drawer is closed.
+     * @param open   Scale of the content when the drawer is open.
+     */
+    public void setContentScale(float closed, float open) {
+        mContentScaleClosed = closed;
+        mContentScaleOpen = open;
+    }
+
+    /**
+     * Set the scale of the menu when the drawer is closed and open. 1.0f is the original size.
+     *
+     * @param closed Scale of the menu when the drawer is closed.
+     * @param open   Scale of the menu when the drawer is open.
+     */
+    public void setMenuScale(float closed, float open) {
+        mMenuScaleClosed = closed;
+        mMenuScaleOpen = open;
+    }
+
+    /**
+     * Set the alpha of the menu when the drawer is closed and open.
+     * 0.0f is transparent, 1.0f is completely visible.
+     *
+     * @param closed Alpha of the menu when the drawer is closed.
+     * @param open   Alpha of the menu when the drawer is open.
+     */
+    public void setMenuAlpha(float closed, float open) {
+        mMenuAlphaClosed = closed;
+        mMenuAlphaOpen = open;
+    }
+
+    /**
+     * Set the curve applied to the drag offset.
+     *
+     * @param interpolator Curve to apply. Set to "null" for a linear curve.
+     */
+    public void setInterpolator(@Nullable TimeInterpolator interpolator) {
+        mInterpolator = interpolator;
+        buildCurve();
+    }
+
+    /**
+     * Returns the curve applied to the drag offset.
+     *
+     * @return The current interpolator or null if the curve is linear.
+     */
+    @Nullable
+    public TimeInterpolator getInterpolator() {
+        return mInterpolator;
+    }
+
+    @Override
+    public void onSizeChanged(int width, int height, int openWidth) {
+        mOpenWidth = openWidth;
+        buildCurve();
+    }
+
+    @Override
+    public void transformViews(@Nullable View contentView, @Nullable View menuView, float dragOffset) {
+        float fraction = getFraction(dragOffset);
+
+        if (contentView != null) {
+            float scaleFactorContent = lerp(mContentScaleClosed, mContentScaleOpen, fraction);
+            contentView.setScaleX(scaleFactorContent);
+            contentView.setScaleY(scaleFactorContent);
+        }
+
+        if (menuView != null) {
+            float scaleFactorMenu = lerp(mMenuScaleClosed, mMenuScaleOpen, fraction);
+            menuView.setScaleX(scaleFactorMenu);
+            menuView.setScaleY(scaleFactorMenu);
+            menuView.setAlpha(lerp(mMenuAlphaClosed, mMenuAlphaOpen, fraction));
+        }
+    }
+
+    /**
+     * Samples the interpolator, one sample for every pixel the content travels
+     * but never more than {@link #MAX_CURVE_SAMPLES}.
+     */
+    private void buildCurve() {
+        if (mInterpolator == null) {
+            mCurve = null;
+            return;
+        }
+
+        int samples = Math.max(MIN_CURVE_SAMPLES, Math.min(MAX_CURVE_SAMPLES, mOpenWidth + 1));
+        if (mCurve == null || mCurve.length != samples) {
+            mCurve = new float[samples];
+        }
+
+        for (int i = 0; i < samples; i++) {
+            mCurve[i] = mInterpolator.getInterpolation(i / (float) (samples - 1));
+        }
+    }
+
+    /**
+     * Reads the curve at the given drag offset.
+     */
+    private float getFraction(float dragOffset) {
+        if (dragOffset <= 0) return mCurve == null ? 0 : mCurve[0];
+        if (dragOffset >= 1) return mCurve == null ? 1 : mCurve[mCurve.length - 1];
+        if (mCurve == null) return dragOffset;
+
+        float position = dragOffset * (mCurve.length - 1);
+        int index = (int) position;
+        return lerp(mCurve[index], mCurve[index + 1], position - index);
+    }
+
+    private static float lerp(float start, float end, float fraction) {
+        return start + (end - start) * fraction;
+    }
+}